@@ -0,0 +1,225 @@
+package org.mvel2;
+
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded, thread-safe cache of compiled scripts keyed by the script text and the identity of the
+ * {@link ParserConfiguration} it is compiled with.
+ * <p>
+ * Concurrent requests for the same missing script are compiled once: the first caller compiles it and the others
+ * wait for its result. The total weight of the cached scripts (by default one per script) is kept under the
+ * configured maximum by evicting entries that were not accessed since the last eviction pass (second-chance / CLOCK
+ * policy), so lookups never take a lock.
+ * <p>
+ * Compiled expressions returned by this cache are shared between callers and must not be modified.
+ * The cache keeps strong references to the parser configurations used as keys.
+ */
+public class CompiledScriptCache {
+
+    private final ConcurrentHashMap<Key, Node> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentLinkedQueue<Node> evictionQueue = new ConcurrentLinkedQueue<>();
+
+    private final long maxWeight;
+
+    private final ToLongFunction<String> weigher;
+
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maxSize - maximum number of cached scripts
+     */
+    public CompiledScriptCache(long maxSize) {
+        this(maxSize, script -> 1);
+    }
+
+    /**
+     * @param maxWeight - maximum total weight of cached scripts
+     * @param weigher   - computes the weight of a script from its text, e.g. <tt>String::length</tt>
+     */
+    public CompiledScriptCache(long maxWeight, ToLongFunction<String> weigher) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Max weight should be positive: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the compiled form of the script, compiling it with a new {@link ParserContext} for the given
+     * configuration on a cache miss.
+     *
+     * @param script              - the script text
+     * @param parserConfiguration - the parser configuration, compared by identity
+     * @return a shared compiled expression
+     */
+    public Serializable get(String script, ParserConfiguration parserConfiguration) {
+        Key key = new Key(script, parserConfiguration);
+        Node node = entries.get(key);
+        if (node != null) {
+            hitCount.increment();
+            node.markReferenced();
+            return node.await();
+        }
+        Node newNode = new Node(key, weigher.applyAsLong(script));
+        node = entries.putIfAbsent(key, newNode);
+        if (node != null) {
+            hitCount.increment();
+            node.markReferenced();
+            return node.await();
+        }
+        missCount.increment();
+        evictionQueue.add(newNode);
+        weightedSize.addAndGet(newNode.weight);
+        try {
+            newNode.compiled.complete(MVEL.compileExpression(script, new ParserContext(parserConfiguration)));
+        } catch (RuntimeException | Error e) {
+            remove(newNode);
+            newNode.compiled.completeExceptionally(e);
+            throw e;
+        }
+        evict();
+        return newNode.await();
+    }
+
+    public void invalidate(String script, ParserConfiguration parserConfiguration) {
+        Node node = entries.get(new Key(script, parserConfiguration));
+        if (node != null) {
+            remove(node);
+        }
+    }
+
+    public void invalidateAll() {
+        for (Node node : entries.values()) {
+            remove(node);
+        }
+    }
+
+    public long size() {
+        return entries.size();
+    }
+
+    public long getWeightedSize() {
+        return weightedSize.get();
+    }
+
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private boolean remove(Node node) {
+        if (entries.remove(node.key, node)) {
+            evictionQueue.remove(node);
+            weightedSize.addAndGet(-node.weight);
+            return true;
+        }
+        return false;
+    }
+
+    private void evict() {
+        while (weightedSize.get() > maxWeight) {
+            Node node = evictionQueue.poll();
+            if (node == null) {
+                return;
+            }
+            if (node.referenced) {
+                node.referenced = false;
+                evictionQueue.add(node);
+            } else if (entries.remove(node.key, node)) {
+                weightedSize.addAndGet(-node.weight);
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String script;
+        private final ParserConfiguration parserConfiguration;
+        private final int hash;
+
+        Key(String script, ParserConfiguration parserConfiguration) {
+            this.script = Objects.requireNonNull(script);
+            this.parserConfiguration = parserConfiguration;
+            this.hash = 31 * script.hashCode() + System.identityHashCode(parserConfiguration);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return hash == key.hash && parserConfiguration == key.parserConfiguration && script.equals(key.script);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Node {
+        private final Key key;
+        private final long weight;
+        private final CompletableFuture<Serializable> compiled = new CompletableFuture<>();
+        private volatile boolean referenced;
+
+        Node(Key key, long weight) {
+            this.key = key;
+            this.weight = weight;
+        }
+
+        void markReferenced() {
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+
+        Serializable await() {
+            try {
+                return compiled.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new RuntimeException(cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for script compilation", e);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ package org.mvel2;
 
 import org.mvel2.conversion.*;
 import org.mvel2.util.FastList;
+import org.mvel2.util.ParseTools;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -138,6 +139,8 @@ public class DataConversion {
    */
   public static void addConversionHandler(Class type, ConversionHandler handler) {
     CONVERTERS.put(type, handler);
+    // overload resolution scores convertible arguments, so memoized resolutions may no longer be the best ones
+    ParseTools.clearCandidateCache();
   }
 
   public static void main(String[] args) {
@@ -2,36 +2,41 @@ package org.mvel2;
 
 import org.mvel2.execution.ExecutionArrayList;
 import org.mvel2.execution.ExecutionObject;
+import org.mvel2.util.StringSizeUtil;
 import org.mvel2.util.TriFunction;
 
 import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 public class ExecutionContext implements Serializable {
 
+    private static final int STOP_POLL_INTERVAL = 1024;
+
     private final Map<Object, ValueReference> valueReferenceMap = new IdentityHashMap<>();
-    private final Map<VarKey, Object> variablesMap = new HashMap<>();
+    private final List<VariableFrame> variableFrames = new ArrayList<>();
 
     private final SandboxedParserConfiguration parserConfig;
     private final long maxAllowedMemory;
 
     private final int maxAllowedMethodArgs;
 
+    private final long maxAllowedIterations;
+
+    private final boolean estimateStringSize;
+
     private int stackLevel = 0;
 
     private long memorySize = 0;
@@ -40,6 +45,10 @@ public class ExecutionContext implements Serializable {
 
     private volatile boolean stopped = false;
 
+    private long iterations = 0;
+
+    private long nextPoll = 0;
+
     public ExecutionContext(SandboxedParserConfiguration parserConfig) {
         this(parserConfig, -1);
     }
@@ -49,19 +58,43 @@ public class ExecutionContext implements Serializable {
     }
 
     public ExecutionContext(SandboxedParserConfiguration parserConfig, long maxAllowedMemory, int maxAllowedMethodArgs) {
+        this(parserConfig, maxAllowedMemory, maxAllowedMethodArgs, -1);
+    }
+
+    public ExecutionContext(SandboxedParserConfiguration parserConfig, long maxAllowedMemory, int maxAllowedMethodArgs, long maxAllowedIterations) {
         this.parserConfig = parserConfig;
         this.maxAllowedMemory = maxAllowedMemory;
         this.maxAllowedMethodArgs = maxAllowedMethodArgs;
+        this.maxAllowedIterations = maxAllowedIterations;
+        this.estimateStringSize = parserConfig.getStringSizeMode() == SandboxedParserConfiguration.StringSizeMode.ESTIMATED;
+        this.variableFrames.add(new VariableFrame());
     }
 
     public int nextId() {
         return this.idSequence.incrementAndGet();
     }
 
+    /**
+     * Called on every loop iteration. The stop flag is polled every {@link #STOP_POLL_INTERVAL} iterations
+     * only, while the iterations budget (if any) is enforced exactly.
+     */
     public void checkExecution() {
+        if (++iterations >= nextPoll) {
+            poll();
+        }
+    }
+
+    private void poll() {
+        if (maxAllowedIterations > 0 && iterations > maxAllowedIterations) {
+            throw new ScriptExecutionStoppedException("Script iterations limit exceeded (" + iterations + " > " + maxAllowedIterations + ")!");
+        }
         if (stopped) {
             throw new ScriptExecutionStoppedException("Script execution is stopped!");
         }
+        nextPoll = iterations + STOP_POLL_INTERVAL;
+        if (maxAllowedIterations > 0 && nextPoll > maxAllowedIterations + 1) {
+            nextPoll = maxAllowedIterations + 1;
+        }
     }
 
     public Object[] checkInvocation(Method method, Object ctx, Object[] args) {
@@ -79,14 +112,33 @@ public class ExecutionContext implements Serializable {
         this.stopped = true;
     }
 
+    /**
+     * Resets the context to its initial state, so it can be reused for another script invocation.
+     * Internal tables keep their capacity. Execution collections created by the previous invocation
+     * must be unpacked or detached before the reset and must not be used afterwards.
+     */
+    public void reset() {
+        for (VariableFrame frame : this.variableFrames) {
+            frame.release(null);
+        }
+        this.valueReferenceMap.clear();
+        this.stackLevel = 0;
+        this.memorySize = 0;
+        this.idSequence.set(0);
+        this.stopped = false;
+        this.iterations = 0;
+        this.nextPoll = 0;
+    }
+
     public void enterStack() {
         this.stackLevel++;
+        if (this.variableFrames.size() == this.stackLevel) {
+            this.variableFrames.add(new VariableFrame());
+        }
     }
 
     public void leaveStack() {
-        int level = this.stackLevel;
-        List<VarKey> keysToRemove = variablesMap.keySet().stream().filter(varKey -> varKey.level == level).collect(Collectors.toList());
-        keysToRemove.forEach(key -> this.checkAssignVariable(key, null));
+        this.variableFrames.get(this.stackLevel).release(this);
         this.stackLevel--;
     }
 
@@ -106,42 +158,48 @@ public class ExecutionContext implements Serializable {
     }
 
     public Object checkAssignGlobalVariable(String varName, Object value) {
-        return this.checkAssignVariable(new VarKey(0, varName), value);
+        return this.checkAssignVariable(this.variableFrames.get(0).namedSlot(varName), value);
     }
 
     public Object checkAssignLocalVariable(String varName, Object value) {
-        return this.checkAssignVariable(new VarKey(this.stackLevel, varName), value);
+        return this.checkAssignVariable(this.variableFrames.get(this.stackLevel).namedSlot(varName), value);
     }
 
-    private Object checkAssignVariable(VarKey varKey, Object value) {
-        if (this.variablesMap.containsKey(varKey)) {
-            Object prevValue = this.variablesMap.get(varKey);
-            ValueReference reference = valueReferenceMap.get(prevValue);
-            if (reference != null) {
-                if (reference.removeReference(varKey)) {
-                    valueReferenceMap.remove(prevValue);
-                    memorySize -= reference.getSize();
-                }
-            }
+    public Object checkAssignLocalVariable(int index, String varName, Object value) {
+        return this.checkAssignVariable(this.variableFrames.get(this.stackLevel).indexedSlot(index, varName), value);
+    }
+
+    private Object checkAssignVariable(VariableSlot slot, Object value) {
+        if (slot.reference != null) {
+            this.releaseReference(slot.reference);
+            slot.reference = null;
         }
         if (value != null) {
             Object converted = convertValue(value);
-            this.variablesMap.put(varKey, converted);
-            ValueReference reference = valueReferenceMap.computeIfAbsent(value, o -> {
-                ValueReference newReference = new ValueReference();
-                newReference.setSize(getValueSize(converted));
-                memorySize += newReference.getSize();
-                return newReference;
-            });
-            reference.addReference(varKey);
+            ValueReference reference = valueReferenceMap.get(value);
+            if (reference == null) {
+                reference = new ValueReference(value, getValueSize(converted));
+                valueReferenceMap.put(value, reference);
+                memorySize += reference.getSize();
+            }
+            reference.references++;
+            slot.value = converted;
+            slot.reference = reference;
             value = converted;
         } else {
-            this.variablesMap.remove(varKey);
+            slot.value = null;
         }
         this.checkMemoryLimit();
         return value;
     }
 
+    private void releaseReference(ValueReference reference) {
+        if (--reference.references == 0) {
+            valueReferenceMap.remove(reference.value);
+            memorySize -= reference.getSize();
+        }
+    }
+
     public long onValRemove(ExecutionObject obj, Object key, Object val) {
         long valSize = getValueSize(key) + getValueSize(val);
         ValueReference reference = valueReferenceMap.get(obj);
@@ -165,7 +223,15 @@ public class ExecutionContext implements Serializable {
 
     public void dumpVars() {
         System.out.println("VARS:");
-        variablesMap.forEach((key, value) -> System.out.println(key + " = " + value));
+        for (int level = 0; level <= stackLevel; level++) {
+            VariableFrame frame = variableFrames.get(level);
+            for (int i = 0; i < frame.activeCount; i++) {
+                VariableSlot slot = frame.activeSlots[i];
+                if (slot.value != null) {
+                    System.out.println("[" + level + "] " + slot.name + " = " + slot.value);
+                }
+            }
+        }
     }
 
     public void dumpValueReferences() {
@@ -181,6 +247,22 @@ public class ExecutionContext implements Serializable {
         return maxAllowedMemory;
     }
 
+    public int getMaxAllowedMethodArgs() {
+        return maxAllowedMethodArgs;
+    }
+
+    public long getMaxAllowedIterations() {
+        return maxAllowedIterations;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public SandboxedParserConfiguration getParserConfig() {
+        return parserConfig;
+    }
+
     private void checkMemoryLimit() {
         if (maxAllowedMemory > 0 && memorySize > maxAllowedMemory) {
             throw new ScriptMemoryOverflowException("Script memory overflow (" + memorySize + " > " + maxAllowedMemory + ")!");
@@ -198,41 +280,47 @@ public class ExecutionContext implements Serializable {
         if (value == null) {
             return 0;
         }
-        Function<Object, Long> valueSizeFunction = this.parserConfig.getValueSizeFunction(value.getClass());
-        if (valueSizeFunction != null) {
-            return valueSizeFunction.apply(value);
-        } else if (value instanceof ExecutionObject) {
-            if (valueReferenceMap.containsKey(value)) {
-                return 4;
-            } else {
-                return ((ExecutionObject) value).memorySize();
-            }
-        } else if (value instanceof String) {
-            return ((String) value).getBytes().length;
-        } else if (value instanceof Byte) {
-            return 1;
-        } else if (value instanceof Character) {
-            return 1;
-        } else if (value instanceof Short) {
-            return 2;
-        } else if (value instanceof Integer) {
-            return 4;
-        } else if (value instanceof Long) {
-            return 8;
-        } else if (value instanceof Float) {
+        return this.parserConfig.getValueSizer(value.getClass()).size(this, value);
+    }
+
+    private long getExecutionObjectSize(ExecutionObject value) {
+        if (valueReferenceMap.containsKey(value)) {
             return 4;
-        } else if (value instanceof Double) {
-            return 8;
-        } else if (value instanceof Boolean) {
-            return 1;
-        } else if (value instanceof UUID) {
-            return 16;
-        } else if (value instanceof Date) {
-            return 8;
-        } else if (value.getClass().isArray() && value.getClass().getComponentType().isPrimitive()) {
-            return (long) Array.getLength(value) * componentTypeSize(value.getClass().getComponentType());
         } else {
-            throw new ScriptRuntimeException("Unsupported value type: " + value.getClass());
+            return value.memorySize();
+        }
+    }
+
+    private long getStringSize(String value) {
+        return this.estimateStringSize ? StringSizeUtil.estimateSize(value) : StringSizeUtil.exactSize(value);
+    }
+
+    static ValueSizer builtInValueSizer(Class<?> type) {
+        if (ExecutionObject.class.isAssignableFrom(type)) {
+            return (ctx, value) -> ctx.getExecutionObjectSize((ExecutionObject) value);
+        } else if (String.class.equals(type)) {
+            return (ctx, value) -> ctx.getStringSize((String) value);
+        } else if (Byte.class.equals(type) || Character.class.equals(type) || Boolean.class.equals(type)) {
+            return (ctx, value) -> 1;
+        } else if (Short.class.equals(type)) {
+            return (ctx, value) -> 2;
+        } else if (Integer.class.equals(type) || Float.class.equals(type)) {
+            return (ctx, value) -> 4;
+        } else if (Long.class.equals(type) || Double.class.equals(type) || Date.class.isAssignableFrom(type)) {
+            return (ctx, value) -> 8;
+        } else if (UUID.class.equals(type)) {
+            return (ctx, value) -> 16;
+        } else if (BigInteger.class.equals(type)) {
+            return (ctx, value) -> ((BigInteger) value).bitLength() / 8 + 1;
+        } else if (BigDecimal.class.equals(type)) {
+            return (ctx, value) -> ((BigDecimal) value).unscaledValue().bitLength() / 8 + 1 + 4;
+        } else if (type.isArray() && type.getComponentType().isPrimitive()) {
+            int componentSize = componentTypeSize(type.getComponentType());
+            return (ctx, value) -> (long) Array.getLength(value) * componentSize;
+        } else {
+            return (ctx, value) -> {
+                throw new ScriptRuntimeException("Unsupported value type: " + type);
+            };
         }
     }
 
@@ -258,39 +346,95 @@ public class ExecutionContext implements Serializable {
         }
     }
 
-    private static final class VarKey {
-        private final int level;
-        private final String name;
-        VarKey(int level, String name) {
-            this.level = level;
-            this.name = name;
+    @FunctionalInterface
+    interface ValueSizer {
+        long size(ExecutionContext ctx, Object value);
+    }
+
+    private static final class VariableFrame {
+        private static final VariableSlot[] EMPTY_SLOTS = new VariableSlot[0];
+        private static final int MAX_CACHED_SLOTS = 64;
+
+        private final Map<String, VariableSlot> namedSlots = new HashMap<>();
+        private VariableSlot[] indexedSlots = EMPTY_SLOTS;
+        private VariableSlot[] activeSlots = new VariableSlot[8];
+        private int activeCount = 0;
+
+        VariableSlot namedSlot(String name) {
+            VariableSlot slot = namedSlots.get(name);
+            if (slot == null) {
+                slot = new VariableSlot(name);
+                namedSlots.put(name, slot);
+            }
+            return activate(slot);
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            VarKey varKey = (VarKey) o;
-            return level == varKey.level && Objects.equals(name, varKey.name);
+        VariableSlot indexedSlot(int index, String name) {
+            if (index >= indexedSlots.length) {
+                indexedSlots = Arrays.copyOf(indexedSlots, Math.max(index + 1, indexedSlots.length * 2));
+            }
+            VariableSlot slot = indexedSlots[index];
+            // A frame is reused by every function called at the same stack level, and the same register may
+            // hold a different variable in each of them: the cached slot only applies to the same name.
+            if (slot == null || (slot.name != name && !slot.name.equals(name))) {
+                slot = indexedSlots[index] = namedSlot(name);
+            }
+            return activate(slot);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(level, name);
+        void release(ExecutionContext executionContext) {
+            for (int i = 0; i < activeCount; i++) {
+                VariableSlot slot = activeSlots[i];
+                if (slot.reference != null) {
+                    if (executionContext != null) {
+                        executionContext.releaseReference(slot.reference);
+                    }
+                    slot.reference = null;
+                }
+                slot.value = null;
+                slot.active = false;
+                activeSlots[i] = null;
+            }
+            activeCount = 0;
+            // Frames outlive executions when the context is reused, so the slots of past variable names are
+            // dropped once there are too many of them.
+            if (namedSlots.size() > MAX_CACHED_SLOTS) {
+                namedSlots.clear();
+                Arrays.fill(indexedSlots, null);
+            }
+        }
+
+        private VariableSlot activate(VariableSlot slot) {
+            if (!slot.active) {
+                if (activeCount == activeSlots.length) {
+                    activeSlots = Arrays.copyOf(activeSlots, activeCount * 2);
+                }
+                activeSlots[activeCount++] = slot;
+                slot.active = true;
+            }
+            return slot;
         }
     }
 
-    private static final class ValueReference {
-        private final Set<VarKey> references = new HashSet<>();
-        private long size = 0;
+    private static final class VariableSlot {
+        private final String name;
+        private Object value;
+        private ValueReference reference;
+        private boolean active;
 
-        void addReference(VarKey varKey) {
-            references.add(varKey);
+        VariableSlot(String name) {
+            this.name = name;
         }
+    }
+
+    private static final class ValueReference {
+        private final Object value;
+        private int references = 0;
+        private long size;
 
-        boolean removeReference(VarKey varKey) {
-            references.remove(varKey);
-            return references.isEmpty();
+        ValueReference(Object value, long size) {
+            this.value = value;
+            this.size = size;
         }
 
         public long getSize() {
@@ -0,0 +1,122 @@
+package org.mvel2;
+
+import java.util.ArrayDeque;
+
+/**
+ * Bounded per-thread pool of {@link ExecutionContext} instances sharing the same {@link SandboxedParserConfiguration}
+ * and limits. Contexts are {@link ExecutionContext#reset() reset} on release, so a worker thread can reuse them
+ * without allocating new internal tables for every script invocation.
+ * <p>
+ * A context must be released only after the script result has been unpacked or detached, and only by the thread
+ * that acquired it.
+ */
+public class ExecutionContextPool {
+
+    private final SandboxedParserConfiguration parserConfig;
+
+    private final long maxAllowedMemory;
+
+    private final int maxAllowedMethodArgs;
+
+    private final long maxAllowedIterations;
+
+    private final int maxPoolSize;
+
+    private final ThreadLocal<ArrayDeque<ExecutionContext>> pool = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public ExecutionContextPool(SandboxedParserConfiguration parserConfig) {
+        this(parserConfig, -1);
+    }
+
+    public ExecutionContextPool(SandboxedParserConfiguration parserConfig, long maxAllowedMemory) {
+        this(parserConfig, maxAllowedMemory, 10);
+    }
+
+    public ExecutionContextPool(SandboxedParserConfiguration parserConfig, long maxAllowedMemory, int maxAllowedMethodArgs) {
+        this(builder(parserConfig).maxAllowedMemory(maxAllowedMemory).maxAllowedMethodArgs(maxAllowedMethodArgs));
+    }
+
+    private ExecutionContextPool(Builder builder) {
+        this.parserConfig = builder.parserConfig;
+        this.maxAllowedMemory = builder.maxAllowedMemory;
+        this.maxAllowedMethodArgs = builder.maxAllowedMethodArgs;
+        this.maxAllowedIterations = builder.maxAllowedIterations;
+        this.maxPoolSize = builder.maxPoolSize;
+    }
+
+    /**
+     * Starts building a pool with the limits of {@link #ExecutionContextPool(SandboxedParserConfiguration)}: no
+     * memory or iteration limit, 10 method arguments, and 4 pooled contexts per thread.
+     */
+    public static Builder builder(SandboxedParserConfiguration parserConfig) {
+        return new Builder(parserConfig);
+    }
+
+    public ExecutionContext acquire() {
+        ExecutionContext ctx = pool.get().pollLast();
+        if (ctx == null) {
+            ctx = new ExecutionContext(parserConfig, maxAllowedMemory, maxAllowedMethodArgs, maxAllowedIterations);
+        }
+        return ctx;
+    }
+
+    public void release(ExecutionContext ctx) {
+        if (ctx.getParserConfig() != parserConfig || ctx.getMaxAllowedMemory() != maxAllowedMemory
+                || ctx.getMaxAllowedMethodArgs() != maxAllowedMethodArgs || ctx.getMaxAllowedIterations() != maxAllowedIterations) {
+            return;
+        }
+        ArrayDeque<ExecutionContext> contexts = pool.get();
+        if (contexts.size() < maxPoolSize && !contexts.contains(ctx)) {
+            ctx.reset();
+            contexts.addLast(ctx);
+        }
+    }
+
+    public SandboxedParserConfiguration getParserConfig() {
+        return parserConfig;
+    }
+
+    public static final class Builder {
+
+        private final SandboxedParserConfiguration parserConfig;
+
+        private long maxAllowedMemory = -1;
+
+        private int maxAllowedMethodArgs = 10;
+
+        private long maxAllowedIterations = -1;
+
+        private int maxPoolSize = 4;
+
+        private Builder(SandboxedParserConfiguration parserConfig) {
+            this.parserConfig = parserConfig;
+        }
+
+        public Builder maxAllowedMemory(long maxAllowedMemory) {
+            this.maxAllowedMemory = maxAllowedMemory;
+            return this;
+        }
+
+        public Builder maxAllowedMethodArgs(int maxAllowedMethodArgs) {
+            this.maxAllowedMethodArgs = maxAllowedMethodArgs;
+            return this;
+        }
+
+        public Builder maxAllowedIterations(long maxAllowedIterations) {
+            this.maxAllowedIterations = maxAllowedIterations;
+            return this;
+        }
+
+        /**
+         * @param maxPoolSize - maximum number of idle contexts kept per thread
+         */
+        public Builder maxPoolSize(int maxPoolSize) {
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        public ExecutionContextPool build() {
+            return new ExecutionContextPool(this);
+        }
+    }
+}
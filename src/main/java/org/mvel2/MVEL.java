@@ -828,6 +828,22 @@ public class MVEL {
     return optimizeTree(new ExpressionCompiler(expression, ctx).compile());
   }
 
+  /**
+   * Compiles an expression with the given parser configuration. Passing a {@link SandboxedParserConfiguration}
+   * compiles the expression in sandboxed mode, independently of other compilations running concurrently.
+   *
+   * @param expression          - the expression to be compiled
+   * @param parserConfiguration - the parser configuration
+   * @return -
+   */
+  public static Serializable compileExpression(String expression, ParserConfiguration parserConfiguration) {
+    return compileExpression(expression, new ParserContext(parserConfiguration));
+  }
+
+  public static Serializable compileExpression(char[] expression, ParserConfiguration parserConfiguration) {
+    return compileExpression(expression, new ParserContext(parserConfiguration));
+  }
+
   public static Serializable compileExpression(char[] expression, int start, int offset, ParserContext ctx) {
     ExpressionCompiler c = new ExpressionCompiler(expression, start, offset, ctx);
     return optimizeTree(c._compile());
@@ -944,12 +960,30 @@ public class MVEL {
   }
 
   public static Object executeTbExpression(final Object compiledExpression, final ExecutionContext ctx, Map vars) {
+    return ArgsRepackUtil.unpack(executeExpression(compiledExpression, ctx, repackTbVars(ctx, vars)));
+  }
+
+  /**
+   * Executes a compiled TBEL expression and hands the result over to the caller without a deep copy: execution
+   * collections are detached from the execution context and returned as is.
+   *
+   * @param compiledExpression -
+   * @param ctx                -
+   * @param vars               -
+   * @return -
+   * @see #executeTbExpression(Object, ExecutionContext, Map)
+   */
+  public static Object executeTbExpressionDetached(final Object compiledExpression, final ExecutionContext ctx, Map vars) {
+    return ArgsRepackUtil.detach(executeExpression(compiledExpression, ctx, repackTbVars(ctx, vars)));
+  }
+
+  private static Map repackTbVars(final ExecutionContext ctx, Map vars) {
     if(vars != null) {
       Map newVars = new HashMap();
       vars.forEach((k,v) -> newVars.put(k , ArgsRepackUtil.repack(ctx, v)));
       vars = newVars;
     }
-    return ArgsRepackUtil.unpack(executeExpression(compiledExpression, ctx, vars));
+    return vars;
   }
 
   public static Object executeExpression(final Object compiledExpression, final Object ctx, final VariableResolverFactory resolverFactory) {
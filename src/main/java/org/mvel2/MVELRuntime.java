@@ -27,7 +27,7 @@ import org.mvel2.debug.DebuggerContext;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.OptimizerFactory;
 import org.mvel2.util.ErrorUtil;
-import org.mvel2.util.ExecutionStack;
+import org.mvel2.util.OperandStack;
 
 import static org.mvel2.Operator.*;
 import static org.mvel2.util.PropertyTools.isEmpty;
@@ -54,21 +54,19 @@ public class MVELRuntime {
                                VariableResolverFactory variableFactory) {
 
     Object v1, v2;
-    ExecutionStack stk = new ExecutionStack();
 
     ASTNode tk = expression.getFirstNode();
-    Integer operator;
+    int operator;
 
     if (tk == null) return null;
 
-    ASTNode node = expression.getFirstNode();
-    while (node != null) {
-      if (node instanceof Function) {
-        node.getReducedValueAccelerated(ctx, ctx, variableFactory);
-      }
-      node = node.nextASTNode;
+    for (Function function : expression.getDeclaredFunctions()) {
+      function.getReducedValueAccelerated(ctx, ctx, variableFactory);
     }
 
+    OperandStack stk = OperandStack.get();
+    int enclosing = stk.enter();
+
     try {
       do {
         if (tk.fields == -1) {
@@ -136,8 +134,7 @@ public class MVELRuntime {
 
         try {
           while (stk.isReduceable()) {
-            if ((Integer) stk.peek() == CHOR) {
-              stk.pop();
+            if (stk.peekOperator() == CHOR) {
               v1 = stk.pop();
               v2 = stk.pop();
               if (!isEmpty(v2) || !isEmpty(v1)) {
@@ -193,6 +190,7 @@ public class MVELRuntime {
       }
     }
     finally {
+      stk.exit(enclosing);
       OptimizerFactory.clearThreadAccessorOptimizer();
     }
   }
@@ -37,6 +37,7 @@ import org.mvel2.integration.Interceptor;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.integration.impl.ClassImportResolverFactory;
 import org.mvel2.integration.impl.StackResetResolverFactory;
+import org.mvel2.optimizers.dynamic.TieringPolicy;
 import org.mvel2.util.MethodStub;
 
 import static org.mvel2.util.ParseTools.forNameWithInner;
@@ -57,6 +58,8 @@ public class ParserConfiguration implements Serializable {
 
   private boolean allowBootstrapBypass = true;
 
+  private transient TieringPolicy tieringPolicy;
+
   private VariableResolverFactory threadUnsafeVariableResolverFactory;
 
   public ParserConfiguration() {
@@ -282,6 +285,20 @@ public class ParserConfiguration implements Serializable {
     this.allowBootstrapBypass = allowBootstrapBypass;
   }
 
+  /**
+   * Returns the policy promoting dynamic accessors of expressions compiled with this configuration, or <tt>null</tt>
+   * if {@link org.mvel2.optimizers.dynamic.DynamicOptimizer#getDefaultTieringPolicy()} applies.
+   *
+   * @return -
+   */
+  public TieringPolicy getTieringPolicy() {
+    return tieringPolicy;
+  }
+
+  public void setTieringPolicy(TieringPolicy tieringPolicy) {
+    this.tieringPolicy = tieringPolicy;
+  }
+
   public VariableResolverFactory getVariableFactory(VariableResolverFactory factory) {
     if (MVEL.RUNTIME_OPT_THREAD_UNSAFE) {
       if (threadUnsafeVariableResolverFactory == null) {
@@ -59,8 +59,7 @@ import org.mvel2.util.ReflectionUtil;
  */
 public class ParserContext implements Serializable {
 
-  private static boolean sandboxedMode = false;
-  private static SandboxedParserConfiguration sandboxedParserConfiguration;
+  private static volatile SandboxedParserConfiguration sandboxedParserConfiguration;
 
   private String sourceFile;
 
@@ -109,23 +108,35 @@ public class ParserContext implements Serializable {
   private boolean executableCodeReached = false;
   private boolean indexAllocation = false;
   protected boolean variablesEscape = false;
+  private boolean scopeCaptured = false;
 
   private Map<String, Object> literals;
 
-  public static SandboxedParserConfiguration enableSandboxedMode() {
-    sandboxedMode = true;
+  /**
+   * Makes every subsequently created <tt>ParserContext</tt> without an explicit {@link SandboxedParserConfiguration}
+   * use a new shared sandboxed configuration.
+   *
+   * @deprecated this is a JVM-wide switch; pass a {@link SandboxedParserConfiguration} to
+   * {@link #ParserContext(ParserConfiguration)} or {@link MVEL#compileExpression(String, ParserConfiguration)} instead.
+   */
+  @Deprecated
+  public static synchronized SandboxedParserConfiguration enableSandboxedMode() {
     sandboxedParserConfiguration = new SandboxedParserConfiguration();
     return sandboxedParserConfiguration;
   }
 
-  public static void disableSandboxedMode() {
-    sandboxedMode = false;
+  /**
+   * @deprecated see {@link #enableSandboxedMode()}.
+   */
+  @Deprecated
+  public static synchronized void disableSandboxedMode() {
     sandboxedParserConfiguration = null;
   }
 
   public ParserContext() {
-    if (sandboxedMode) {
-      parserConfiguration = sandboxedParserConfiguration;
+    SandboxedParserConfiguration sandboxedConfiguration = sandboxedParserConfiguration;
+    if (sandboxedConfiguration != null) {
+      parserConfiguration = sandboxedConfiguration;
     } else {
       parserConfiguration = new ParserConfiguration();
     }
@@ -141,9 +152,18 @@ public class ParserContext implements Serializable {
     this.rootParser = rootParser;
   }
 
+  /**
+   * Creates a parser context for the given configuration. Passing a {@link SandboxedParserConfiguration} enables
+   * sandboxed compilation for this context and all of its subcontexts only. While the deprecated global sandboxed
+   * mode is enabled, any other configuration is replaced with the global sandboxed one, so that callers relying on
+   * the switch keep compiling sandboxed.
+   *
+   * @param parserConfiguration -
+   */
   public ParserContext(ParserConfiguration parserConfiguration) {
-    if (sandboxedMode) {
-      this.parserConfiguration = sandboxedParserConfiguration;
+    SandboxedParserConfiguration sandboxedConfiguration = sandboxedParserConfiguration;
+    if (sandboxedConfiguration != null && !(parserConfiguration instanceof SandboxedParserConfiguration)) {
+      this.parserConfiguration = sandboxedConfiguration;
     } else {
       this.parserConfiguration = parserConfiguration;
     }
@@ -162,13 +182,18 @@ public class ParserContext implements Serializable {
 
   public ParserContext(Map<String, Object> imports, Map<String, Interceptor> interceptors, String sourceFile) {
     this.sourceFile = sourceFile;
-    if (sandboxedMode) {
-      this.parserConfiguration = sandboxedParserConfiguration;
+    SandboxedParserConfiguration sandboxedConfiguration = sandboxedParserConfiguration;
+    if (sandboxedConfiguration != null) {
+      this.parserConfiguration = sandboxedConfiguration;
     } else {
       this.parserConfiguration = new ParserConfiguration(imports, interceptors);
     }
   }
 
+  public boolean isSandboxed() {
+    return parserConfiguration instanceof SandboxedParserConfiguration;
+  }
+
   public ParserContext createSubcontext() {
     ParserContext ctx = new ParserContext(parserConfiguration);
     ctx.sourceFile = sourceFile;
@@ -432,14 +457,14 @@ public class ParserContext implements Serializable {
    * @param cls The instance of the <tt>Class</tt> which represents the imported class.
    */
   public void addImport(Class cls) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       throw new UnsupportedOperationException("Import is forbidden!");
     }
     addImport(cls.getSimpleName(), cls);
   }
 
   public void addImport(Proto proto) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       throw new UnsupportedOperationException("Import is forbidden!");
     }
     parserConfiguration.addImport(proto.getName(), proto);
@@ -459,7 +484,7 @@ public class ParserContext implements Serializable {
    * @param cls  The instance of the <tt>Class</tt> which represents the imported class.
    */
   public void addImport(String name, Class cls) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       throw new UnsupportedOperationException("Import is forbidden!");
     }
     parserConfiguration.addImport(name, cls);
@@ -478,7 +503,7 @@ public class ParserContext implements Serializable {
    * @param method The instance of <tt>Method</tt> which represents the static import.
    */
   public void addImport(String name, Method method) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       throw new UnsupportedOperationException("Import is forbidden!");
     }
     addImport(name, new MethodStub(method));
@@ -493,7 +518,7 @@ public class ParserContext implements Serializable {
    * @see #addImport(String, org.mvel2.util.MethodStub)
    */
   public void addImport(String name, MethodStub method) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       throw new UnsupportedOperationException("Import is forbidden!");
     }
     parserConfiguration.addImport(name, method);
@@ -939,6 +964,25 @@ public class ParserContext implements Serializable {
     return variablesEscape;
   }
 
+  /**
+   * Records that the expression contains a construct, such as an object prototype, which keeps a reference to the
+   * variable scope it is evaluated in after the evaluation. The enclosing contexts are marked as well, since the
+   * captured scope chains to theirs.
+   */
+  public void markScopeCaptured() {
+    for (ParserContext ctx = this; ctx != null && !ctx.scopeCaptured; ctx = ctx.parent) {
+      ctx.scopeCaptured = true;
+    }
+  }
+
+  /**
+   * @return whether the variable scopes created while evaluating the expression may outlive the evaluation, and
+   * must therefore not be reused
+   */
+  public boolean isScopeCaptured() {
+    return scopeCaptured;
+  }
+
   public boolean isExecutableCodeReached() {
     return executableCodeReached;
   }
@@ -969,7 +1013,7 @@ public class ParserContext implements Serializable {
   }
 
   public boolean hasLiteral(String property) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       return SandboxedParserConfiguration.literals.containsKey(property);
     } else {
       return this.literals().containsKey(property);
@@ -977,7 +1021,7 @@ public class ParserContext implements Serializable {
   }
 
   public Object getLiteral(String property) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       return SandboxedParserConfiguration.literals.get(property);
     } else {
       return this.literals().get(property);
@@ -985,7 +1029,7 @@ public class ParserContext implements Serializable {
   }
 
   public void setLiterals(Map<String, Object> literals) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       // Do nothing
     } else {
       this.literals = literals;
@@ -1169,7 +1213,7 @@ public class ParserContext implements Serializable {
   }
 
   public boolean isMethodAllowed(Method method) {
-    if (sandboxedMode) {
+    if (isSandboxed()) {
       return !SandboxedClassLoader.forbiddenMethods.contains(method);
     } else {
       return true;
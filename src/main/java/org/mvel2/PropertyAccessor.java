@@ -21,12 +21,14 @@ import org.mvel2.ast.*;
 import org.mvel2.integration.GlobalListenerFactory;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.integration.impl.ImmutableDefaultFactory;
+import org.mvel2.util.CacheStats;
+import org.mvel2.util.ClassCache;
 import org.mvel2.util.ErrorUtil;
 import org.mvel2.util.MethodStub;
 import org.mvel2.util.ParseTools;
+import org.mvel2.util.ResolvedMethod;
 import org.mvel2.util.StringAppender;
 
-import java.lang.ref.WeakReference;
 import java.lang.reflect.*;
 import java.util.*;
 
@@ -80,17 +82,10 @@ public class PropertyAccessor {
 
   private static final Object[] EMPTYARG = new Object[0];
 
-  private static final Map<Class, WeakHashMap<Integer, WeakReference<Member>>> READ_PROPERTY_RESOLVER_CACHE;
-  private static final Map<Class, WeakHashMap<Integer, WeakReference<Member>>> WRITE_PROPERTY_RESOLVER_CACHE;
-  private static final Map<Class, WeakHashMap<Integer, WeakReference<Object[]>>> METHOD_RESOLVER_CACHE;
-  private static final Map<Member, WeakReference<Class[]>> METHOD_PARMTYPES_CACHE;
-
-  static {
-    READ_PROPERTY_RESOLVER_CACHE = Collections.synchronizedMap(new WeakHashMap<Class, WeakHashMap<Integer, WeakReference<Member>>>(10));
-    WRITE_PROPERTY_RESOLVER_CACHE = Collections.synchronizedMap(new WeakHashMap<Class, WeakHashMap<Integer, WeakReference<Member>>>(10));
-    METHOD_RESOLVER_CACHE = Collections.synchronizedMap(new WeakHashMap<Class, WeakHashMap<Integer, WeakReference<Object[]>>>(10));
-    METHOD_PARMTYPES_CACHE = Collections.synchronizedMap(new WeakHashMap<Member, WeakReference<Class[]>>(10));
-  }
+  private static final ClassCache<String, Member> READ_PROPERTY_RESOLVER_CACHE = new ClassCache<String, Member>("read property");
+  private static final ClassCache<String, Member> WRITE_PROPERTY_RESOLVER_CACHE = new ClassCache<String, Member>("write property");
+  private static final ClassCache<String, ResolvedMethod> METHOD_RESOLVER_CACHE = new ClassCache<String, ResolvedMethod>("method");
+  private static final ClassCache<Method, Class[]> METHOD_PARMTYPES_CACHE = new ClassCache<Method, Class[]>("method parameter types");
 
   public PropertyAccessor(String property, Object ctx) {
     this.length = end = (this.property = property.toCharArray()).length;
@@ -327,9 +322,9 @@ public class PropertyAccessor {
 
       String tk = capture();
 
-      Member member = checkWriteCache(curr.getClass(), tk == null ? 0 : tk.hashCode());
+      Member member = checkWriteCache(curr.getClass(), tk == null ? "" : tk);
       if (member == null) {
-        addWriteCache(curr.getClass(), tk != null ? tk.hashCode() : -1,
+        addWriteCache(curr.getClass(), tk == null ? "" : tk,
             (member = value != null ? getFieldOrWriteAccessor(curr.getClass(), tk, value.getClass()) : getFieldOrWriteAccessor(curr.getClass(), tk)));
       }
 
@@ -461,89 +456,50 @@ public class PropertyAccessor {
     METHOD_RESOLVER_CACHE.clear();
   }
 
+  /**
+   * @return the hit and miss counts of the read property, write property, method and parameter type caches
+   */
+  public static List<CacheStats> getCacheStats() {
+    return Arrays.asList(READ_PROPERTY_RESOLVER_CACHE.getStats(), WRITE_PROPERTY_RESOLVER_CACHE.getStats(),
+        METHOD_RESOLVER_CACHE.getStats(), METHOD_PARMTYPES_CACHE.getStats());
+  }
+
+  /**
+   * @deprecated use {@link #getCacheStats()}
+   */
+  @Deprecated
   public static void reportCacheSizes() {
-    System.out.println("read property cache: " + READ_PROPERTY_RESOLVER_CACHE.size());
-    for (Class cls : READ_PROPERTY_RESOLVER_CACHE.keySet()) {
-      System.out.println(" [" + cls.getName() + "]: " + READ_PROPERTY_RESOLVER_CACHE.get(cls).size() + " entries.");
-    }
-    System.out.println("write property cache: " + WRITE_PROPERTY_RESOLVER_CACHE.size());
-    for (Class cls : WRITE_PROPERTY_RESOLVER_CACHE.keySet()) {
-      System.out.println(" [" + cls.getName() + "]: " + WRITE_PROPERTY_RESOLVER_CACHE.get(cls).size() + " entries.");
-    }
-    System.out.println("method cache: " + METHOD_RESOLVER_CACHE.size());
-    for (Class cls : METHOD_RESOLVER_CACHE.keySet()) {
-      System.out.println(" [" + cls.getName() + "]: " + METHOD_RESOLVER_CACHE.get(cls).size() + " entries.");
+    for (CacheStats stats : getCacheStats()) {
+      System.out.println(stats);
     }
   }
 
-  private static void addReadCache(Class cls, Integer property, Member member) {
-    synchronized (READ_PROPERTY_RESOLVER_CACHE) {
-      WeakHashMap<Integer, WeakReference<Member>> nestedMap = READ_PROPERTY_RESOLVER_CACHE.get(cls);
-
-      if (nestedMap == null) {
-        READ_PROPERTY_RESOLVER_CACHE.put(cls, nestedMap = new WeakHashMap<Integer, WeakReference<Member>>());
-      }
-
-      nestedMap.put(property, new WeakReference<Member>(member));
-    }
+  private static void addReadCache(Class cls, String property, Member member) {
+    READ_PROPERTY_RESOLVER_CACHE.put(cls, property, member);
   }
 
-  private static Member checkReadCache(Class cls, Integer property) {
-    WeakHashMap<Integer, WeakReference<Member>> map = READ_PROPERTY_RESOLVER_CACHE.get(cls);
-    if (map != null) {
-      WeakReference<Member> member = map.get(property);
-      if (member != null) return member.get();
-    }
-    return null;
+  private static Member checkReadCache(Class cls, String property) {
+    return READ_PROPERTY_RESOLVER_CACHE.get(cls, property);
   }
 
-  private static void addWriteCache(Class cls, Integer property, Member member) {
-    synchronized (WRITE_PROPERTY_RESOLVER_CACHE) {
-      WeakHashMap<Integer, WeakReference<Member>> map = WRITE_PROPERTY_RESOLVER_CACHE.get(cls);
-      if (map == null) {
-        WRITE_PROPERTY_RESOLVER_CACHE.put(cls, map = new WeakHashMap<Integer, WeakReference<Member>>());
-      }
-      map.put(property, new WeakReference<Member>(member));
-    }
+  private static void addWriteCache(Class cls, String property, Member member) {
+    WRITE_PROPERTY_RESOLVER_CACHE.put(cls, property, member);
   }
 
-  private static Member checkWriteCache(Class cls, Integer property) {
-    Map<Integer, WeakReference<Member>> map = WRITE_PROPERTY_RESOLVER_CACHE.get(cls);
-    if (map != null) {
-      WeakReference<Member> member = map.get(property);
-      if (member != null) return member.get();
-    }
-    return null;
+  private static Member checkWriteCache(Class cls, String property) {
+    return WRITE_PROPERTY_RESOLVER_CACHE.get(cls, property);
   }
 
   public static Class[] checkParmTypesCache(Method member) {
-    WeakReference<Class[]> pt = METHOD_PARMTYPES_CACHE.get(member);
-    Class[] ret;
-    if (pt == null || (ret = pt.get()) == null) {
-      //noinspection UnusedAssignment
-      METHOD_PARMTYPES_CACHE.put(member, pt = new WeakReference<Class[]>(ret = member.getParameterTypes()));
-    }
-    return ret;
+    return METHOD_PARMTYPES_CACHE.get(member.getDeclaringClass(), member, Method::getParameterTypes);
   }
 
-
-  private static void addMethodCache(Class cls, Integer property, Method member) {
-    synchronized (METHOD_RESOLVER_CACHE) {
-      WeakHashMap<Integer, WeakReference<Object[]>> map = METHOD_RESOLVER_CACHE.get(cls);
-      if (map == null) {
-        METHOD_RESOLVER_CACHE.put(cls, map = new WeakHashMap<Integer, WeakReference<Object[]>>());
-      }
-      map.put(property, new WeakReference<Object[]>(new Object[]{member, member.getParameterTypes()}));
-    }
+  private static void addMethodCache(Class cls, String signature, ResolvedMethod resolved) {
+    METHOD_RESOLVER_CACHE.put(cls, signature, resolved);
   }
 
-  private static Object[] checkMethodCache(Class cls, Integer property) {
-    Map<Integer, WeakReference<Object[]>> map = METHOD_RESOLVER_CACHE.get(cls);
-    if (map != null) {
-      WeakReference<Object[]> ref = map.get(property);
-      if (ref != null) return ref.get();
-    }
-    return null;
+  private static ResolvedMethod checkMethodCache(Class cls, String signature) {
+    return METHOD_RESOLVER_CACHE.get(cls, signature);
   }
 
   private Object getBeanPropertyAO(Object ctx, String property)
@@ -585,10 +541,10 @@ public class PropertyAccessor {
         cls = ctx.getClass();
       }
 
-      Member member = checkReadCache(cls, property.hashCode());
+      Member member = checkReadCache(cls, property);
 
       if (member == null) {
-        addReadCache(cls, property.hashCode(), member = getFieldOrAccessor(cls, property));
+        addReadCache(cls, property, member = getFieldOrAccessor(cls, property));
       }
 
       if (member instanceof Method) {
@@ -912,14 +868,14 @@ public class PropertyAccessor {
     /**
      * Check to see if we have already cached this method;
      */
-    Object[] cache = checkMethodCache(cls, createSignature(name, tk));
+    ResolvedMethod resolved = checkMethodCache(cls, createSignature(name, tk));
 
     Method m;
     Class[] parameterTypes;
 
-    if (cache != null) {
-      m = (Method) cache[0];
-      parameterTypes = (Class[]) cache[1];
+    if (resolved != null) {
+      m = resolved.getMethod();
+      parameterTypes = resolved.getParameterTypes();
     }
     else {
       m = null;
@@ -933,8 +889,8 @@ public class PropertyAccessor {
       /**
        * Try to find an instance method from the class target.
        */
-      if ((m = getBestCandidate(args, name, cls, cls.getMethods(), false)) != null) {
-        addMethodCache(cls, createSignature(name, tk), m);
+      if ((m = (resolved = resolveBestCandidate(argumentTypes(args), name, cls, false, false)).getMethod()) != null) {
+        addMethodCache(cls, createSignature(name, tk), resolved);
         parameterTypes = m.getParameterTypes();
       }
 
@@ -943,7 +899,7 @@ public class PropertyAccessor {
          * If we didn't find anything, maybe we're looking for the actual java.lang.Class methods.
          */
         if ((m = getBestCandidate(args, name, cls, cls.getDeclaredMethods(), false)) != null) {
-          addMethodCache(cls, createSignature(name, tk), m);
+          addMethodCache(cls, createSignature(name, tk), resolved = new ResolvedMethod(m, argumentTypes(args)));
           parameterTypes = m.getParameterTypes();
         }
       }
@@ -953,7 +909,7 @@ public class PropertyAccessor {
     if (m == null && cls != ctx.getClass() && !(ctx instanceof Class)) {
       cls = ctx.getClass();
       if ((m = getBestCandidate(args, name, cls, cls.getDeclaredMethods(), false)) != null) {
-        addMethodCache(cls, createSignature(name, tk), m);
+        addMethodCache(cls, createSignature(name, tk), resolved = new ResolvedMethod(m, argumentTypes(args)));
         parameterTypes = m.getParameterTypes();
       }
     }
@@ -984,8 +940,13 @@ public class PropertyAccessor {
           , property, st, pCtx);
     }
     else {
-      for (int i = 0; i < args.length; i++) {
-        args[i] = convert(args[i], paramTypeVarArgsSafe(parameterTypes, i, m.isVarArgs()));
+      if (resolved != null && resolved.getMethod() == m && resolved.matches(args)) {
+        resolved.coerce(args);
+      }
+      else {
+        for (int i = 0; i < args.length; i++) {
+          args[i] = convert(args[i], paramTypeVarArgsSafe(parameterTypes, i, m.isVarArgs()));
+        }
       }
 
       /**
@@ -997,7 +958,7 @@ public class PropertyAccessor {
       }
       catch (IllegalAccessException e) {
         try {
-          addMethodCache(cls, createSignature(name, tk), (m = getWidenedTarget(m)));
+          addMethodCache(cls, createSignature(name, tk), new ResolvedMethod(m = getWidenedTarget(m), argumentTypes(args)));
 
           return m.invoke(ctx, args);
         }
@@ -1014,8 +975,16 @@ public class PropertyAccessor {
     }
   }
 
-  private static int createSignature(String name, String args) {
-    return name.hashCode() + args.hashCode();
+  private static Class[] argumentTypes(Object[] args) {
+    Class[] types = new Class[args.length];
+    for (int i = 0; i < args.length; i++) {
+      types[i] = args[i] != null ? args[i].getClass() : null;
+    }
+    return types;
+  }
+
+  private static String createSignature(String name, String args) {
+    return name + '(' + args + ')';
   }
 
   private ClassLoader getClassLoader() {
@@ -12,12 +12,36 @@ import java.util.stream.Collectors;
 
 public class SandboxedParserConfiguration extends ParserConfiguration {
 
+    public enum StringSizeMode {
+        /**
+         * Size of the string encoded with the platform charset.
+         */
+        EXACT,
+        /**
+         * Size estimated from the string length and coder, without encoding the string.
+         */
+        ESTIMATED
+    }
+
     private final Map<Class<?>, Function<Object, Long>> additionalDataTypes = new HashMap<>();
 
     private final Map<Method, TriFunction<ExecutionContext, Object, Object[], Object[]>> invocationCheckers = new HashMap<>();
 
     private SandboxedClassLoader sanboxedClassLoader = new SandboxedClassLoader();
 
+    private StringSizeMode stringSizeMode = StringSizeMode.EXACT;
+
+    private final ClassValue<ExecutionContext.ValueSizer> valueSizers = new ClassValue<ExecutionContext.ValueSizer>() {
+        @Override
+        protected ExecutionContext.ValueSizer computeValue(Class<?> type) {
+            Function<Object, Long> valueSizeFunction = additionalDataTypes.get(type);
+            if (valueSizeFunction != null) {
+                return (ctx, value) -> valueSizeFunction.apply(value);
+            }
+            return ExecutionContext.builtInValueSizer(type);
+        }
+    };
+
     protected static final Map<String, Object> literals = AbstractParser.LITERALS
             .entrySet().stream().filter(entry -> !SandboxedClassLoader.forbiddenClassLiterals.contains(entry.getKey()))
             .collect(HashMap::new, (m, v)->m.put(v.getKey(), v.getValue()), HashMap::putAll);
@@ -118,16 +142,29 @@ public class SandboxedParserConfiguration extends ParserConfiguration {
     public <T> void registerDataType(String name, Class<T> cls, Function<T, Long> valueSizeFunction) {
         this.addImport(name, cls);
         this.additionalDataTypes.put(cls, (Function<Object, Long>) valueSizeFunction);
+        this.valueSizers.remove(cls);
     }
 
     public void registerMethodInvocationChecker(Method method, TriFunction<ExecutionContext, Object, Object[], Object[]> methodInvocationCheckerFunction) {
         this.invocationCheckers.put(method, methodInvocationCheckerFunction);
     }
 
+    public StringSizeMode getStringSizeMode() {
+        return stringSizeMode;
+    }
+
+    public void setStringSizeMode(StringSizeMode stringSizeMode) {
+        this.stringSizeMode = stringSizeMode;
+    }
+
     public Function<Object, Long> getValueSizeFunction(Class<?> cls) {
         return this.additionalDataTypes.get(cls);
     }
 
+    ExecutionContext.ValueSizer getValueSizer(Class<?> cls) {
+        return this.valueSizers.get(cls);
+    }
+
     public TriFunction<ExecutionContext, Object, Object[], Object[]> getMethodInvocationChecker(Method method) {
         return this.invocationCheckers.get(method);
     }
@@ -151,8 +151,15 @@ public class ASTNode implements Cloneable, Serializable {
     if ((fields & PCTX_STORED) != 0) {
       pCtx = (ParserContext) literal;
     }
+    else if (this.pCtx != null && this.pCtx.isSandboxed()) {
+      pCtx = new ParserContext(this.pCtx.getParserConfiguration());
+    }
     else {
-      pCtx = new ParserContext(new ParserConfiguration(getInjectedImports(factory), null));
+      ParserConfiguration parserConfiguration = new ParserConfiguration(getInjectedImports(factory), null);
+      if (this.pCtx != null) {
+        parserConfiguration.setTieringPolicy(this.pCtx.getParserConfiguration().getTieringPolicy());
+      }
+      pCtx = new ParserContext(parserConfiguration);
     }
 
     try {
@@ -468,6 +475,14 @@ public class ASTNode implements Cloneable, Serializable {
     }
   }
 
+  protected Object checkAssignLocalVariable(Object ctx, int register, String varName, Object value) {
+    if (ctx instanceof ExecutionContext) {
+      return ((ExecutionContext)ctx).checkAssignLocalVariable(register, varName, value);
+    } else {
+      return value;
+    }
+  }
+
   protected Object checkAssignGlobalVariable(Object ctx, String varName, Object value) {
     if (ctx instanceof ExecutionContext) {
       return ((ExecutionContext)ctx).checkAssignGlobalVariable(varName, value);
@@ -107,6 +107,19 @@ public class BinaryOperation extends BooleanNode {
       }
   }
 
+  /**
+   * Copies the operation together with its operands and their resolved types.
+   */
+  protected BinaryOperation(BinaryOperation operation) {
+    super(operation.pCtx);
+    this.operation = operation.operation;
+    this.left = operation.left;
+    this.right = operation.right;
+    this.lType = operation.lType;
+    this.rType = operation.rType;
+    this.egressType = operation.egressType;
+  }
+
   private int getOperandType(ASTNode node) {
     if (node.egressType == null || node.egressType == Object.class) {
       return DataTypes.NULL;
@@ -146,6 +159,13 @@ public class BinaryOperation extends BooleanNode {
         right.getReducedValueAccelerated(ctx, thisValue, factory));
   }
 
+  /**
+   * Applies the operation to the values of the operands.
+   */
+  protected Object reduce(Object leftValue, Object rightValue) {
+    return doOperations(lType, leftValue, operation, rType, rightValue);
+  }
+
 
   public Object getReducedValue(Object ctx, Object thisValue, VariableResolverFactory factory) {
     throw new RuntimeException("unsupported AST operation");
@@ -155,6 +175,22 @@ public class BinaryOperation extends BooleanNode {
     return operation;
   }
 
+  /**
+   * @return the type code of the left operand resolved at compile time, or a value below 1 if it is resolved from
+   * the operand value
+   */
+  public int getLeftType() {
+    return lType;
+  }
+
+  /**
+   * @return the type code of the right operand resolved at compile time, or a value below 1 if it is resolved from
+   * the operand value
+   */
+  public int getRightType() {
+    return rType;
+  }
+
   public void setRightMost(ASTNode right) {
     BinaryOperation n = this;
     while (n.right != null && n.right instanceof BinaryOperation) {
@@ -18,6 +18,7 @@
 package org.mvel2.ast;
 
 import java.lang.reflect.Array;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import org.mvel2.CompileException;
 import org.mvel2.DataConversion;
@@ -46,8 +47,24 @@ public class ForEachNode extends BlockNode {
   private static final int ARRAY = 1;
   private static final int CHARSEQUENCE = 2;
   private static final int INTEGER = 3;
+  private static final int OBJECT_ARRAY = 4;
+  private static final int BYTE_ARRAY = 5;
+  private static final int INT_ARRAY = 6;
+  private static final int DOUBLE_ARRAY = 7;
 
-  private int type = -1;
+  /**
+   * Iteration strategy selected for the class of the last iterated value.
+   */
+  private transient Iteration iteration;
+
+  /**
+   * Frame released by the last execution of the loop, reused by the next one unless the block may capture it.
+   */
+  private boolean reuseFrames;
+  private transient volatile Frame idleFrame;
+
+  private static final AtomicReferenceFieldUpdater<ForEachNode, Frame> IDLE_FRAME =
+      AtomicReferenceFieldUpdater.newUpdater(ForEachNode.class, Frame.class, "idleFrame");
 
   public ForEachNode(char[] expr, int start, int offset, int blockStart, int blockOffset, int fields, ParserContext pCtx) {
     super(pCtx);
@@ -66,113 +83,139 @@ public class ForEachNode extends BlockNode {
       pCtx.makeVisible(item);
 
       this.compiledBlock = (ExecutableStatement) subCompileExpression(expr, blockStart, blockOffset, pCtx);
+      this.reuseFrames = !pCtx.isScopeCaptured();
 
       pCtx.popVariableScope();
     }
   }
 
   public Object getReducedValueAccelerated(Object ctx, Object thisValue, VariableResolverFactory factory) {
+    Frame frame = reuseFrames ? IDLE_FRAME.getAndSet(this, null) : null;
+    if (frame == null) {
+      frame = new Frame(item);
+    }
+    ItemResolverFactory.ItemResolver itemR = frame.item;
+    ItemResolverFactory itemFactory = frame.enter(factory);
+
+    try {
+      Object iterCond = condition.getValue(ctx, thisValue, factory);
+
+      Iteration iteration = this.iteration;
+      if (iteration == null || iteration.receiver != iterCond.getClass()) {
+        this.iteration = iteration = new Iteration(iterCond.getClass(), iterationType(iterCond.getClass()));
+      }
+
+      return iterate(iteration.type, iterCond, ctx, thisValue, itemR, itemFactory);
+    }
+    finally {
+      if (reuseFrames) {
+        frame.release();
+        IDLE_FRAME.lazySet(this, frame);
+      }
+    }
+  }
+
+  public Object getReducedValue(Object ctx, Object thisValue, VariableResolverFactory factory) {
     ItemResolverFactory.ItemResolver itemR = new ItemResolverFactory.ItemResolver(item);
     ItemResolverFactory itemFactory = new ItemResolverFactory(itemR, new DefaultLocalVariableResolverFactory(factory));
 
-    Object iterCond = condition.getValue(ctx, thisValue, factory);
+    Object iterCond = MVEL.eval(expr, start, offset, thisValue, factory);
+
+    if (itemType != null && itemType.isArray())
+      enforceTypeSafety(itemType, getBaseComponentType(iterCond.getClass()));
 
-    if (type == -1) {
-      determineIterType(iterCond.getClass());
+    this.compiledBlock = (ExecutableStatement) subCompileExpression(expr, blockStart, blockOffset, pCtx);
+
+    if (iterCond == null) {
+      throw new CompileException("non-iterable type: null", expr, start);
     }
 
+    return iterate(iterationType(iterCond.getClass()), iterCond, ctx, thisValue, itemR, itemFactory);
+  }
+
+  /**
+   * Runs the block for every item of the value, accessing the items directly according to the iteration type.
+   *
+   * @return the value of the block which tilted the loop, or <tt>null</tt>
+   */
+  private Object iterate(int type, Object iterCond, Object ctx, Object thisValue,
+                         ItemResolverFactory.ItemResolver itemR, ItemResolverFactory itemFactory) {
     Object v;
     switch (type) {
-      case ARRAY:
-        int len = Array.getLength(iterCond);
-        for (int i = 0; i < len; i++) {
+      case ITERABLE:
+        for (Object o : (Iterable) iterCond) {
           checkExecution(ctx);
-          itemR.setValue(Array.get(iterCond, i));
+          itemR.setValue(o);
           v = compiledBlock.getValue(ctx, thisValue, itemFactory);
           if (itemFactory.tiltFlag()) return v;
         }
         break;
-      case CHARSEQUENCE:
-        for (Object o : iterCond.toString().toCharArray()) {
+
+      case OBJECT_ARRAY:
+        for (Object o : (Object[]) iterCond) {
           checkExecution(ctx);
           itemR.setValue(o);
           v = compiledBlock.getValue(ctx, thisValue, itemFactory);
           if (itemFactory.tiltFlag()) return v;
         }
         break;
-      case INTEGER:
-        int max = (Integer) iterCond + 1;
-        for (int i = 1; i != max; i++) {
+
+      // primitive arrays are read without reflection, but their items are still boxed by the item resolver
+      case BYTE_ARRAY:
+        for (byte b : (byte[]) iterCond) {
           checkExecution(ctx);
-          itemR.setValue(i);
+          itemR.setValue(b);
           v = compiledBlock.getValue(ctx, thisValue, itemFactory);
           if (itemFactory.tiltFlag()) return v;
         }
         break;
 
-      case ITERABLE:
-        for (Object o : (Iterable) iterCond) {
+      case INT_ARRAY:
+        for (int n : (int[]) iterCond) {
           checkExecution(ctx);
-          itemR.setValue(o);
+          itemR.setValue(n);
           v = compiledBlock.getValue(ctx, thisValue, itemFactory);
           if (itemFactory.tiltFlag()) return v;
         }
-
         break;
-    }
-
-    return null;
-  }
-
-  public Object getReducedValue(Object ctx, Object thisValue, VariableResolverFactory factory) {
-    ItemResolverFactory.ItemResolver itemR = new ItemResolverFactory.ItemResolver(item);
-    ItemResolverFactory itemFactory = new ItemResolverFactory(itemR, new DefaultLocalVariableResolverFactory(factory));
 
-    Object iterCond = MVEL.eval(expr, start, offset, thisValue, factory);
+      case DOUBLE_ARRAY:
+        for (double d : (double[]) iterCond) {
+          checkExecution(ctx);
+          itemR.setValue(d);
+          v = compiledBlock.getValue(ctx, thisValue, itemFactory);
+          if (itemFactory.tiltFlag()) return v;
+        }
+        break;
 
-    if (itemType != null && itemType.isArray())
-      enforceTypeSafety(itemType, getBaseComponentType(iterCond.getClass()));
+      case ARRAY:
+        int len = Array.getLength(iterCond);
+        for (int i = 0; i < len; i++) {
+          checkExecution(ctx);
+          itemR.setValue(Array.get(iterCond, i));
+          v = compiledBlock.getValue(ctx, thisValue, itemFactory);
+          if (itemFactory.tiltFlag()) return v;
+        }
+        break;
 
-    this.compiledBlock = (ExecutableStatement) subCompileExpression(expr, blockStart, blockOffset, pCtx);
+      case CHARSEQUENCE:
+        for (char c : iterCond.toString().toCharArray()) {
+          checkExecution(ctx);
+          itemR.setValue(c);
+          v = compiledBlock.getValue(ctx, thisValue, itemFactory);
+          if (itemFactory.tiltFlag()) return v;
+        }
+        break;
 
-    Object v;
-    if (iterCond instanceof Iterable) {
-      for (Object o : (Iterable) iterCond) {
-        checkExecution(ctx);
-        itemR.setValue(o);
-        v = compiledBlock.getValue(ctx, thisValue, itemFactory);
-        if (itemFactory.tiltFlag()) return v;
-      }
-    }
-    else if (iterCond != null && iterCond.getClass().isArray()) {
-      int len = Array.getLength(iterCond);
-      for (int i = 0; i < len; i++) {
-        checkExecution(ctx);
-        itemR.setValue(Array.get(iterCond, i));
-        v = compiledBlock.getValue(ctx, thisValue, itemFactory);
-        if (itemFactory.tiltFlag()) return v;
-      }
-    }
-    else if (iterCond instanceof CharSequence) {
-      for (Object o : iterCond.toString().toCharArray()) {
-        checkExecution(ctx);
-        itemR.setValue(o);
-        v = compiledBlock.getValue(ctx, thisValue, itemFactory);
-        if (itemFactory.tiltFlag()) return v;
-      }
-    }
-    else if (iterCond instanceof Integer) {
-      int max = (Integer) iterCond + 1;
-      for (int i = 1; i != max; i++) {
-        checkExecution(ctx);
-        itemR.setValue(i);
-        v = compiledBlock.getValue(ctx, thisValue, itemFactory);
-        if (itemFactory.tiltFlag()) return v;
-      }
-    }
-    else {
-      throw new CompileException("non-iterable type: "
-          + (iterCond != null ? iterCond.getClass().getName() : "null"), expr, start);
+      case INTEGER:
+        int max = (Integer) iterCond + 1;
+        for (int i = 1; i != max; i++) {
+          checkExecution(ctx);
+          itemR.setValue(i);
+          v = compiledBlock.getValue(ctx, thisValue, itemFactory);
+          if (itemFactory.tiltFlag()) return v;
+        }
+        break;
     }
 
     return null;
@@ -210,23 +253,27 @@ public class ForEachNode extends BlockNode {
         enforceTypeSafety(itemType, getBaseComponentType(this.condition.getKnownEgressType()));
       }
       else if (pCtx.isStrongTyping()) {
-        determineIterType(egress);
+        iteration = new Iteration(egress, iterationType(egress));
       }
     }
   }
 
-  private void determineIterType(Class t) {
+  private int iterationType(Class t) {
     if (Iterable.class.isAssignableFrom(t)) {
-      type = ITERABLE;
+      return ITERABLE;
     }
     else if (t.isArray()) {
-      type = ARRAY;
+      if (!t.getComponentType().isPrimitive()) return OBJECT_ARRAY;
+      if (t == byte[].class) return BYTE_ARRAY;
+      if (t == int[].class) return INT_ARRAY;
+      if (t == double[].class) return DOUBLE_ARRAY;
+      return ARRAY;
     }
     else if (CharSequence.class.isAssignableFrom(t)) {
-      type = CHARSEQUENCE;
+      return CHARSEQUENCE;
     }
     else if (Integer.class.isAssignableFrom(t)) {
-      type = INTEGER;
+      return INTEGER;
     }
     else {
       throw new CompileException("non-iterable type: " + t.getName(), expr, start);
@@ -239,4 +286,43 @@ public class ForEachNode extends BlockNode {
           + required.getName() + "; but found: " + getBaseComponentType(actual), expr, start);
     }
   }
+
+  /**
+   * Iteration type of a class of iterated values.
+   */
+  private static final class Iteration {
+    private final Class receiver;
+    private final int type;
+
+    private Iteration(Class receiver, int type) {
+      this.receiver = receiver;
+      this.type = type;
+    }
+  }
+
+  /**
+   * Scope of an execution of the loop: the loop item, and the variables declared by the block.
+   */
+  private static final class Frame {
+    private final ItemResolverFactory.ItemResolver item;
+    private final DefaultLocalVariableResolverFactory locals;
+    private final ItemResolverFactory factory;
+
+    private Frame(String item) {
+      this.item = new ItemResolverFactory.ItemResolver(item);
+      this.locals = new DefaultLocalVariableResolverFactory((VariableResolverFactory) null);
+      this.factory = new ItemResolverFactory(this.item, locals);
+    }
+
+    private ItemResolverFactory enter(VariableResolverFactory enclosing) {
+      locals.reset(enclosing);
+      return factory;
+    }
+
+    private void release() {
+      locals.release();
+      factory.setTiltFlag(false);
+      item.setValue(null);
+    }
+  }
 }
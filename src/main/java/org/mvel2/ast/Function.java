@@ -31,6 +31,7 @@ import org.mvel2.integration.impl.MapVariableResolverFactory;
 import org.mvel2.integration.impl.StackDemarcResolverFactory;
 
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static org.mvel2.util.ParseTools.parseParameterDefList;
 import static org.mvel2.util.ParseTools.subCompileExpression;
@@ -45,6 +46,22 @@ public class Function extends ASTNode implements Safe, HasStatement {
   protected int parmNum;
   protected boolean compiledMode = false;
   protected boolean singleton;
+  protected boolean reuseFrames;
+
+  private transient volatile PrototypalFunctionInstance instance;
+
+  /**
+   * Frames released by the last call, reused by the next one. A call finding no idle frame, because it is
+   * concurrent with or nested in another call, allocates its own. Frames are not reused if the body may capture
+   * them, see {@link ParserContext#isScopeCaptured()}.
+   */
+  private transient volatile FunctionVariableResolverFactory idleFrame;
+  private transient volatile DefaultLocalVariableResolverFactory idleLocalFrame;
+
+  private static final AtomicReferenceFieldUpdater<Function, FunctionVariableResolverFactory> IDLE_FRAME =
+      AtomicReferenceFieldUpdater.newUpdater(Function.class, FunctionVariableResolverFactory.class, "idleFrame");
+  private static final AtomicReferenceFieldUpdater<Function, DefaultLocalVariableResolverFactory> IDLE_LOCAL_FRAME =
+      AtomicReferenceFieldUpdater.newUpdater(Function.class, DefaultLocalVariableResolverFactory.class, "idleLocalFrame");
 
   public Function(String name,
                   char[] expr,
@@ -112,6 +129,7 @@ public class Function extends ASTNode implements Safe, HasStatement {
     ctx.getVariables().clear();
 
     this.compiledBlock = (ExecutableStatement) subCompileExpression(expr, blockStart, blockOffset, ctx);
+    this.reuseFrames = !ctx.isScopeCaptured();
 
     this.parameters = new String[ctx.getIndexedInputs().size()];
 
@@ -128,17 +146,27 @@ public class Function extends ASTNode implements Safe, HasStatement {
   }
 
   public Object getReducedValueAccelerated(Object ctx, Object thisValue, VariableResolverFactory factory) {
-    PrototypalFunctionInstance instance;
     if (name != null) {
       if (!factory.isIndexedFactory() && factory.isResolveable(name))
         return factory.getVariableResolver(name).getValue();
         //throw new CompileException("duplicate function: " + name, expr, start);
       else {
-        instance = new PrototypalFunctionInstance(this, new MapVariableResolverFactory());
+        PrototypalFunctionInstance instance = getInstance();
         factory.createVariable(name, instance);
+        return instance;
       }
-    } else {
-      instance = new PrototypalFunctionInstance(this, new MapVariableResolverFactory());
+    }
+    return new PrototypalFunctionInstance(this, new MapVariableResolverFactory());
+  }
+
+  /**
+   * Returns the instance a named function is bound to. It is created on first use and shared by every execution
+   * of the declaring expression, like the instance captured by an optimized call site.
+   */
+  private PrototypalFunctionInstance getInstance() {
+    PrototypalFunctionInstance instance = this.instance;
+    if (instance == null) {
+      this.instance = instance = new PrototypalFunctionInstance(this, new MapVariableResolverFactory());
     }
     return instance;
   }
@@ -172,33 +200,33 @@ public class Function extends ASTNode implements Safe, HasStatement {
           }
         }
       }
+      FunctionVariableResolverFactory frame = reuseFrames ? IDLE_FRAME.getAndSet(this, null) : null;
+      frame = frame == null ? new FunctionVariableResolverFactory(this, factory, parameters, parms) : frame.reset(factory, parms);
       try {
         enterStack(execCtx);
-        return compiledBlock.getValue(thisValue,
-                new StackDemarcResolverFactory(new FunctionVariableResolverFactory(this, factory, parameters, parms)));
-      } finally {
-        leaveStack(execCtx);
-      }
-    }
-    else if (compiledMode) {
-      try {
-        enterStack(execCtx);
-        return compiledBlock.getValue(thisValue,
-            new StackDemarcResolverFactory(new DefaultLocalVariableResolverFactory(factory, parameters)));
+        return compiledBlock.getValue(thisValue, new StackDemarcResolverFactory(frame));
       } finally {
         leaveStack(execCtx);
+        if (reuseFrames) {
+          frame.release();
+          IDLE_FRAME.lazySet(this, frame);
+        }
       }
     }
     else {
+      DefaultLocalVariableResolverFactory frame = reuseFrames ? IDLE_LOCAL_FRAME.getAndSet(this, null) : null;
+      frame = frame == null ? new DefaultLocalVariableResolverFactory(factory, parameters) : frame.reset(factory);
       try {
         enterStack(execCtx);
-        return compiledBlock.getValue(thisValue,
-            new StackDemarcResolverFactory(new DefaultLocalVariableResolverFactory(factory, parameters)));
+        return compiledBlock.getValue(thisValue, new StackDemarcResolverFactory(frame));
       } finally {
         leaveStack(execCtx);
+        if (reuseFrames) {
+          frame.release();
+          IDLE_LOCAL_FRAME.lazySet(this, frame);
+        }
       }
     }
-
   }
 
   public String getName() {
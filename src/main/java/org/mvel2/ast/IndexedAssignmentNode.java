@@ -115,7 +115,7 @@ public class IndexedAssignmentNode extends ASTNode implements Assignment {
     }
     else if (statement != null) {
       if (factory.isIndexedFactory()) {
-        ctx = checkAssignLocalVariable(ctx, name, statement.getValue(ctx, thisValue, factory));
+        ctx = checkAssignLocalVariable(ctx, register, name, statement.getValue(ctx, thisValue, factory));
         factory.createIndexedVariable(register, name, ctx);
       }
       else {
@@ -143,7 +143,7 @@ public class IndexedAssignmentNode extends ASTNode implements Assignment {
       MVEL.setProperty(factory.getIndexedVariableResolver(register).getValue(), new String(index), ctx = MVEL.eval(stmt, ctx, factory));
     }
     else {
-      ctx = checkAssignLocalVariable(ctx, name, MVEL.eval(stmt, ctx, factory));
+      ctx = checkAssignLocalVariable(ctx, register, name, MVEL.eval(stmt, ctx, factory));
       factory.createIndexedVariable(register, name, ctx);
     }
 
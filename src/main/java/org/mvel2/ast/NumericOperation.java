@@ -0,0 +1,352 @@
+package org.mvel2.ast;
+
+import org.mvel2.DataTypes;
+import org.mvel2.Operator;
+import org.mvel2.integration.VariableResolverFactory;
+
+import static org.mvel2.math.MathProcessor.isExactDouble;
+
+/**
+ * {@link BinaryOperation} on {@link Integer}, {@link Long} and {@link Double} operands which computes on unboxed
+ * values. The node specializes on the classes of the operands, from their egress types when they are known at compile
+ * time or else from the first values it evaluates, and guards every evaluation against them. Operands which are
+ * themselves specialized operations are evaluated through {@link #getIntValue}, {@link #getLongValue},
+ * {@link #getDoubleValue} and {@link #getBooleanValue}, so that only the result of the outermost operation is boxed.
+ * <p>
+ * The results are those of {@link org.mvel2.math.MathProcessor}: operations on two <tt>Integer</tt>s are computed in
+ * <tt>int</tt>, operations involving a <tt>Long</tt> are computed exactly in <tt>long</tt>, divisions of two values of
+ * the same integral type yield a <tt>Double</tt>, and operations involving a <tt>Double</tt> are computed in
+ * <tt>double</tt>. Values the specialization cannot compute exactly, such as <tt>long</tt> overflows, are left to
+ * {@link org.mvel2.math.MathProcessor}. Once an operand of another class is seen the node permanently falls back to
+ * the generic path.
+ */
+public class NumericOperation extends BinaryOperation {
+  private static final int INT = 0;
+  private static final int LONG = 1;
+  private static final int DOUBLE = 2;
+  private static final int BOOLEAN = 3;
+
+  private static final int UNINITIALIZED = -1;
+  private static final int GENERIC = -2;
+
+  /**
+   * Kinds of the operands, as <tt>left &lt;&lt; 2 | right</tt>, or one of {@link #UNINITIALIZED} and {@link #GENERIC}.
+   * Races between threads specializing the node are benign: every evaluation reads the state once and checks the
+   * operands against it.
+   */
+  private int state;
+
+  public NumericOperation(BinaryOperation operation) {
+    super(operation);
+    int leftKind = kindOfType(getLeftType());
+    int rightKind = kindOfType(getRightType());
+    this.state = leftKind < 0 || rightKind < 0 ? UNINITIALIZED : specialization(leftKind, rightKind);
+  }
+
+  /**
+   * @return whether the operation can be specialized: it is arithmetic or a comparison, and the types of its operands
+   * are either unknown or one of the supported wrapper types
+   */
+  public static boolean isApplicable(BinaryOperation operation) {
+    switch (operation.getOperation()) {
+      case Operator.ADD:
+      case Operator.SUB:
+      case Operator.MULT:
+      case Operator.DIV:
+      case Operator.MOD:
+      case Operator.GTHAN:
+      case Operator.GETHAN:
+      case Operator.LTHAN:
+      case Operator.LETHAN:
+      case Operator.EQUAL:
+      case Operator.NEQUAL:
+        return operation.getClass() == BinaryOperation.class
+            && (operation.getLeftType() < 1 || kindOfType(operation.getLeftType()) >= 0)
+            && (operation.getRightType() < 1 || kindOfType(operation.getRightType()) >= 0);
+    }
+    return false;
+  }
+
+  private static int kindOfType(int type) {
+    switch (type) {
+      case DataTypes.W_INTEGER:
+        return INT;
+      case DataTypes.W_LONG:
+        return LONG;
+      case DataTypes.W_DOUBLE:
+        return DOUBLE;
+    }
+    return -1;
+  }
+
+  private static int kindOf(Object value) {
+    if (value instanceof Integer) return INT;
+    if (value instanceof Long) return LONG;
+    if (value instanceof Double) return DOUBLE;
+    return -1;
+  }
+
+  private static int specialization(int leftKind, int rightKind) {
+    return leftKind << 2 | rightKind;
+  }
+
+  private boolean isComparison() {
+    return getOperation() >= Operator.LTHAN;
+  }
+
+  private int resultKind(int state) {
+    if (isComparison()) {
+      return BOOLEAN;
+    }
+    int leftKind = state >> 2;
+    int rightKind = state & 3;
+    if (leftKind == DOUBLE || rightKind == DOUBLE || (getOperation() == Operator.DIV && leftKind == rightKind)) {
+      return DOUBLE;
+    }
+    return leftKind == rightKind ? leftKind : LONG;
+  }
+
+  public Object getReducedValueAccelerated(Object ctx, Object thisValue, VariableResolverFactory factory) {
+    int state = this.state;
+    if (state >= 0) {
+      try {
+        return box(resultKind(state), evaluate(state, ctx, thisValue, factory));
+      }
+      catch (UnexpectedResultException e) {
+        return e.getResult();
+      }
+    }
+
+    Object leftValue = left.getReducedValueAccelerated(ctx, thisValue, factory);
+    Object rightValue = right.getReducedValueAccelerated(ctx, thisValue, factory);
+    if (state == UNINITIALIZED) {
+      int leftKind = kindOf(leftValue);
+      int rightKind = kindOf(rightValue);
+      this.state = leftKind < 0 || rightKind < 0 || !matchesType(getLeftType(), leftKind)
+          || !matchesType(getRightType(), rightKind) ? GENERIC : specialization(leftKind, rightKind);
+    }
+    return reduce(leftValue, rightValue);
+  }
+
+  private static boolean matchesType(int type, int kind) {
+    return type < 1 || kindOfType(type) == kind;
+  }
+
+  /**
+   * @throws UnexpectedResultException if the result is not an <tt>int</tt>; it carries the boxed result
+   */
+  public int getIntValue(Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    return (int) evaluateAs(INT, ctx, thisValue, factory);
+  }
+
+  /**
+   * @throws UnexpectedResultException if the result is not a <tt>long</tt>; it carries the boxed result
+   */
+  public long getLongValue(Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    return evaluateAs(LONG, ctx, thisValue, factory);
+  }
+
+  /**
+   * @throws UnexpectedResultException if the result is not a <tt>double</tt>; it carries the boxed result
+   */
+  public double getDoubleValue(Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    return Double.longBitsToDouble(evaluateAs(DOUBLE, ctx, thisValue, factory));
+  }
+
+  /**
+   * @throws UnexpectedResultException if the result is not a <tt>boolean</tt>; it carries the boxed result
+   */
+  public boolean getBooleanValue(Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    return evaluateAs(BOOLEAN, ctx, thisValue, factory) != 0;
+  }
+
+  private long evaluateAs(int kind, Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    int state = this.state;
+    if (state < 0 || resultKind(state) != kind) {
+      throw new UnexpectedResultException(getReducedValueAccelerated(ctx, thisValue, factory));
+    }
+    return evaluate(state, ctx, thisValue, factory);
+  }
+
+  /**
+   * Evaluates the operation in the given specialization. Results are encoded in a <tt>long</tt>: integral values as
+   * is, <tt>double</tt> values as their bits, and booleans as <tt>0</tt> or <tt>1</tt>.
+   */
+  private long evaluate(int state, Object ctx, Object thisValue, VariableResolverFactory factory) throws UnexpectedResultException {
+    int leftKind = state >> 2;
+    int rightKind = state & 3;
+
+    long l;
+    try {
+      l = operand(left, leftKind, ctx, thisValue, factory);
+    }
+    catch (UnexpectedResultException e) {
+      throw new UnexpectedResultException(generalize(e.getResult(), right.getReducedValueAccelerated(ctx, thisValue, factory)));
+    }
+    long r;
+    try {
+      r = operand(right, rightKind, ctx, thisValue, factory);
+    }
+    catch (UnexpectedResultException e) {
+      throw new UnexpectedResultException(generalize(box(leftKind, l), e.getResult()));
+    }
+
+    if (leftKind != DOUBLE && rightKind != DOUBLE) {
+      boolean ints = leftKind == INT && rightKind == INT;
+      switch (getOperation()) {
+        case Operator.ADD:
+          if (ints) return (int) l + (int) r;
+          try {
+            return Math.addExact(l, r);
+          }
+          catch (ArithmeticException e) {
+            throw unspecialized(leftKind, l, rightKind, r);
+          }
+        case Operator.SUB:
+          if (ints) return (int) l - (int) r;
+          try {
+            return Math.subtractExact(l, r);
+          }
+          catch (ArithmeticException e) {
+            throw unspecialized(leftKind, l, rightKind, r);
+          }
+        case Operator.MULT:
+          if (ints) return (int) l * (int) r;
+          try {
+            return Math.multiplyExact(l, r);
+          }
+          catch (ArithmeticException e) {
+            throw unspecialized(leftKind, l, rightKind, r);
+          }
+        case Operator.DIV:
+          if (leftKind != rightKind) {
+            if (r == 0 || r == -1) throw unspecialized(leftKind, l, rightKind, r);
+            return l / r;
+          }
+          if (!isExactDouble(l) || !isExactDouble(r)) throw unspecialized(leftKind, l, rightKind, r);
+          return Double.doubleToRawLongBits((double) l / (double) r);
+        case Operator.MOD:
+          if (ints) return (int) l % (int) r;
+          if (leftKind != rightKind && r == 0) throw unspecialized(leftKind, l, rightKind, r);
+          return l % r;
+        case Operator.GTHAN:
+          return l > r ? 1 : 0;
+        case Operator.GETHAN:
+          return l >= r ? 1 : 0;
+        case Operator.LTHAN:
+          return l < r ? 1 : 0;
+        case Operator.LETHAN:
+          return l <= r ? 1 : 0;
+        case Operator.EQUAL:
+          return l == r ? 1 : 0;
+        case Operator.NEQUAL:
+          return l != r ? 1 : 0;
+      }
+    }
+    else {
+      double dl = leftKind == DOUBLE ? Double.longBitsToDouble(l) : (double) l;
+      double dr = rightKind == DOUBLE ? Double.longBitsToDouble(r) : (double) r;
+      switch (getOperation()) {
+        case Operator.ADD:
+          return Double.doubleToRawLongBits(dl + dr);
+        case Operator.SUB:
+          return Double.doubleToRawLongBits(dl - dr);
+        case Operator.MULT:
+          return Double.doubleToRawLongBits(dl * dr);
+        case Operator.DIV:
+          return Double.doubleToRawLongBits(dl / dr);
+        case Operator.MOD:
+          return Double.doubleToRawLongBits(dl % dr);
+        case Operator.GTHAN:
+          return dl > dr ? 1 : 0;
+        case Operator.GETHAN:
+          return dl >= dr ? 1 : 0;
+        case Operator.LTHAN:
+          return dl < dr ? 1 : 0;
+        case Operator.LETHAN:
+          return dl <= dr ? 1 : 0;
+        case Operator.EQUAL:
+          return dl == dr ? 1 : 0;
+        case Operator.NEQUAL:
+          return dl != dr ? 1 : 0;
+      }
+    }
+    throw new IllegalStateException("unsupported operation: " + getOperation());
+  }
+
+  /**
+   * Evaluates an operand expected to be of the given kind, without boxing it if the operand is a specialized
+   * operation producing that kind.
+   */
+  private static long operand(ASTNode node, int kind, Object ctx, Object thisValue, VariableResolverFactory factory)
+      throws UnexpectedResultException {
+    Object value;
+    if (node instanceof NumericOperation) {
+      try {
+        return ((NumericOperation) node).evaluateAs(kind, ctx, thisValue, factory);
+      }
+      catch (UnexpectedResultException e) {
+        value = e.getResult();
+      }
+    }
+    else {
+      value = node.getReducedValueAccelerated(ctx, thisValue, factory);
+    }
+
+    switch (kind) {
+      case INT:
+        if (value instanceof Integer) return (Integer) value;
+        break;
+      case LONG:
+        if (value instanceof Long) return (Long) value;
+        break;
+      case DOUBLE:
+        if (value instanceof Double) return Double.doubleToRawLongBits((Double) value);
+        break;
+    }
+    throw new UnexpectedResultException(value);
+  }
+
+  /**
+   * @return an exception carrying the result of the operation computed by the generic path, for operands the
+   * specialization handles but not the particular values of
+   */
+  private UnexpectedResultException unspecialized(int leftKind, long l, int rightKind, long r) {
+    return new UnexpectedResultException(reduce(box(leftKind, l), box(rightKind, r)));
+  }
+
+  private Object generalize(Object leftValue, Object rightValue) {
+    state = GENERIC;
+    return reduce(leftValue, rightValue);
+  }
+
+  private static Object box(int kind, long value) {
+    switch (kind) {
+      case INT:
+        return (int) value;
+      case LONG:
+        return value;
+      case DOUBLE:
+        return Double.longBitsToDouble(value);
+      default:
+        return value != 0;
+    }
+  }
+
+  /**
+   * Thrown by the unboxed entry points of a {@link NumericOperation} when the result is not of the requested type,
+   * carrying the result as it would have been returned by {@link #getReducedValueAccelerated}.
+   */
+  public static final class UnexpectedResultException extends Exception {
+    private final Object result;
+
+    public UnexpectedResultException(Object result) {
+      super(null, null, false, false);
+      this.result = result;
+    }
+
+    public Object getResult() {
+      return result;
+    }
+  }
+}
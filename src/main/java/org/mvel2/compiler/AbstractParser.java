@@ -370,6 +370,7 @@ public class AbstractParser implements Parser, Serializable {
                 TypeDescriptor descr = new TypeDescriptor(expr, st, trimLeft(cursor) - st, fields);
 
                 if (pCtx.getFunctions().containsKey(descr.getClassName())) {
+                  pCtx.markScopeCaptured();
                   return lastNode = new NewObjectPrototype(pCtx, pCtx.getFunction(descr.getClassName()));
                 }
 
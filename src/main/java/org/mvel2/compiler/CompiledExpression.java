@@ -19,9 +19,12 @@
 package org.mvel2.compiler;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.mvel2.ParserConfiguration;
 import org.mvel2.ast.ASTNode;
+import org.mvel2.ast.Function;
 import org.mvel2.ast.TypeCast;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.OptimizerFactory;
@@ -30,7 +33,10 @@ import org.mvel2.util.ASTLinkedList;
 import static org.mvel2.MVELRuntime.execute;
 
 public class CompiledExpression implements Serializable, ExecutableStatement {
+  private static final Function[] NO_FUNCTIONS = new Function[0];
+
   private final ASTNode firstNode;
+  private final Function[] declaredFunctions;
 
   private Class knownEgressType;
   private Class knownIngressType;
@@ -45,6 +51,7 @@ public class CompiledExpression implements Serializable, ExecutableStatement {
 
   public CompiledExpression(ASTLinkedList astMap, String sourceName, Class egressType, ParserConfiguration parserConfiguration, boolean literalOnly) {
     this.firstNode = astMap.firstNode();
+    this.declaredFunctions = findDeclaredFunctions(firstNode);
     this.sourceName = sourceName;
     this.knownEgressType = astMap.isSingleNode() ? astMap.firstNonSymbol().getEgressType() : egressType;
     this.literalOnly = literalOnly;
@@ -55,6 +62,27 @@ public class CompiledExpression implements Serializable, ExecutableStatement {
     return firstNode;
   }
 
+  private static Function[] findDeclaredFunctions(ASTNode firstNode) {
+    List<Function> functions = null;
+    for (ASTNode node = firstNode; node != null; node = node.nextASTNode) {
+      if (node instanceof Function) {
+        if (functions == null) {
+          functions = new ArrayList<Function>();
+        }
+        functions.add((Function) node);
+      }
+    }
+    return functions == null ? NO_FUNCTIONS : functions.toArray(new Function[functions.size()]);
+  }
+
+  /**
+   * @return the functions declared at the top level of the expression, in declaration order. They are bound before
+   * the first statement executes, so they can be called ahead of their declaration.
+   */
+  public Function[] getDeclaredFunctions() {
+    return declaredFunctions;
+  }
+
   public boolean isSingleNode() {
     return firstNode != null && firstNode.nextASTNode == null;
   }
@@ -1,31 +1,215 @@
 package org.mvel2.execution;
 
 import org.mvel2.ExecutionContext;
+import org.mvel2.util.ArgsRepackUtil;
 
+import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 
 public class ExecutionArrayList<E> extends ArrayList<E> implements ExecutionObject {
 
-    private final ExecutionContext executionContext;
+    private ExecutionContext executionContext;
 
     private final int id;
 
     private long memorySize = 0;
 
+    private int pendingValues = 0;
+
     public ExecutionArrayList(ExecutionContext executionContext) {
         this.executionContext = executionContext;
-        this.id = executionContext.nextId();
+        this.id = executionContext != null ? executionContext.nextId() : 0;
     }
 
     public ExecutionArrayList(Collection<? extends E> c, ExecutionContext executionContext) {
         super(c);
         this.executionContext = executionContext;
-        this.id = executionContext.nextId();
+        this.id = executionContext != null ? executionContext.nextId() : 0;
         for (int i = 0; i < size(); i++) {
             E val = get(i);
-            this.memorySize += this.executionContext.onValAdd(this, i, val);
+            this.memorySize += onValAdd(i, val);
+        }
+    }
+
+    /**
+     * Creates a list with the elements of the source collection or array. Nested maps, collections and
+     * object arrays are copied as is and repacked (and accounted) only when they are accessed for the first time.
+     * Nested primitive arrays are repacked right away.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> ExecutionArrayList<E> lazyCopyOf(Object source, ExecutionContext executionContext) {
+        ExecutionArrayList<E> list = new ExecutionArrayList<>(executionContext);
+        if (source.getClass().isArray()) {
+            int size = Array.getLength(source);
+            list.ensureCapacity(size);
+            for (int i = 0; i < size; i++) {
+                list.addLazy((E) Array.get(source, i));
+            }
+        } else {
+            Collection<E> c = (Collection<E>) source;
+            list.ensureCapacity(c.size());
+            for (E val : c) {
+                list.addLazy(val);
+            }
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void addLazy(E value) {
+        if (ArgsRepackUtil.isLazyRepackable(value)) {
+            super.add(value);
+            this.pendingValues++;
+        } else if (ArgsRepackUtil.isPrimitiveArray(value)) {
+            add((E) ArgsRepackUtil.repack(this.executionContext, value));
+        } else {
+            add(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private E materialize(int index, E value) {
+        E repacked = (E) ArgsRepackUtil.repack(this.executionContext, value);
+        super.set(index, repacked);
+        this.pendingValues--;
+        this.memorySize += onValAdd(index, repacked);
+        return repacked;
+    }
+
+    private void materializeAll() {
+        for (int i = 0; this.pendingValues > 0 && i < size(); i++) {
+            get(i);
+        }
+    }
+
+    /**
+     * Hands the list over to the caller: severs the link to the execution context so that further modifications
+     * are no longer accounted, and detaches nested values in place. Values still pending repack are unpacked,
+     * so the detached list never shares structure with the script input.
+     */
+    @SuppressWarnings("unchecked")
+    public void detach() {
+        if (this.executionContext == null) {
+            return;
         }
+        this.executionContext = null;
+        this.pendingValues = 0;
+        for (int i = 0; i < size(); i++) {
+            E value = super.get(i);
+            Object detached = ArgsRepackUtil.detach(value);
+            if (detached != value) {
+                super.set(i, (E) detached);
+            }
+        }
+    }
+
+    public boolean isDetached() {
+        return this.executionContext == null;
+    }
+
+    private long onValAdd(Object key, Object value) {
+        return this.executionContext != null ? this.executionContext.onValAdd(this, key, value) : 0;
+    }
+
+    private long onValRemove(Object key, Object value) {
+        return this.executionContext != null ? this.executionContext.onValRemove(this, key, value) : 0;
+    }
+
+    /**
+     * Iterates over the elements without materializing values that are still pending repack.
+     */
+    public void forEachRaw(Consumer<? super E> action) {
+        super.forEach(action);
+    }
+
+    @Override
+    public E get(int index) {
+        E value = super.get(index);
+        if (this.pendingValues > 0 && ArgsRepackUtil.isLazyRepackable(value)) {
+            value = materialize(index, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        materializeAll();
+        return super.iterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator() {
+        materializeAll();
+        return super.listIterator();
+    }
+
+    @Override
+    public ListIterator<E> listIterator(int index) {
+        materializeAll();
+        return super.listIterator(index);
+    }
+
+    @Override
+    public List<E> subList(int fromIndex, int toIndex) {
+        materializeAll();
+        return super.subList(fromIndex, toIndex);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        materializeAll();
+        return super.spliterator();
+    }
+
+    @Override
+    public void forEach(Consumer<? super E> action) {
+        materializeAll();
+        super.forEach(action);
+    }
+
+    @Override
+    public Object[] toArray() {
+        materializeAll();
+        return super.toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        materializeAll();
+        return super.toArray(a);
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        materializeAll();
+        return super.removeIf(filter);
+    }
+
+    @Override
+    public void replaceAll(UnaryOperator<E> operator) {
+        materializeAll();
+        super.replaceAll(operator);
+    }
+
+    @Override
+    public void sort(Comparator<? super E> c) {
+        materializeAll();
+        super.sort(c);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        this.pendingValues = 0;
     }
 
     public boolean push(E e) {
@@ -54,7 +238,7 @@ public class ExecutionArrayList<E> extends ArrayList<E> implements ExecutionObje
         boolean res = super.addAll(c);
         int i = c.size();
         for (E val : c) {
-            this.memorySize += this.executionContext.onValAdd(this, i++, val);
+            this.memorySize += onValAdd(i++, val);
         }
         return res;
     }
@@ -64,7 +248,7 @@ public class ExecutionArrayList<E> extends ArrayList<E> implements ExecutionObje
         boolean res = super.addAll(index, c);
         int i = index;
         for (E val : c) {
-            this.memorySize += this.executionContext.onValAdd(this, i++, val);
+            this.memorySize += onValAdd(i++, val);
         }
         return res;
     }
@@ -72,31 +256,37 @@ public class ExecutionArrayList<E> extends ArrayList<E> implements ExecutionObje
     @Override
     public void add(int index, E e) {
         super.add(index, e);
-        this.memorySize += this.executionContext.onValAdd(this, index, e);
+        this.memorySize += onValAdd(index, e);
     }
 
     @Override
     public boolean add(E e) {
         boolean res = super.add(e);
-        this.memorySize += this.executionContext.onValAdd(this, size() - 1, e);
+        this.memorySize += onValAdd(size() - 1, e);
         return res;
     }
 
     @Override
     public E remove(int index) {
+        get(index);
         E value = super.remove(index);
-        this.memorySize -= this.executionContext.onValRemove(this, index, value);
+        this.memorySize -= onValRemove(index, value);
         return value;
     }
 
     @Override
     public E set(int index, E element) {
+        get(index);
         E oldValue = super.set(index, element);
-        this.memorySize -= this.executionContext.onValRemove(this, index, oldValue);
-        this.memorySize += this.executionContext.onValAdd(this, index, element);
+        this.memorySize -= onValRemove(index, oldValue);
+        this.memorySize += onValAdd(index, element);
         return oldValue;
     }
 
+    /**
+     * @return a new list with the elements in the range, accounted in the execution context of this list, or detached
+     * if this list is detached
+     */
     public ExecutionArrayList<E> slice(int start, int end) {
         return new ExecutionArrayList<>(this.subList(start, end), this.executionContext);
     }
@@ -118,6 +308,7 @@ public class ExecutionArrayList<E> extends ArrayList<E> implements ExecutionObje
     @Override
     public String toString() {
         String res = super.toString();
-        return "(id=" + id + ") " + res;
+        // a detached value belongs to the caller, the id only makes sense within the execution
+        return isDetached() ? res : "(id=" + id + ") " + res;
     }
 }
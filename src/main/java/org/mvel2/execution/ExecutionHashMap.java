@@ -1,34 +1,192 @@
 package org.mvel2.execution;
 
 import org.mvel2.ExecutionContext;
+import org.mvel2.util.ArgsRepackUtil;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class ExecutionHashMap<K, V> extends LinkedHashMap<K, V> implements ExecutionObject {
 
-    private final ExecutionContext executionContext;
+    private ExecutionContext executionContext;
 
     private final int id;
 
     private long memorySize = 0;
 
+    private int pendingValues = 0;
+
     public ExecutionHashMap(int size, ExecutionContext executionContext) {
         super(size);
         this.executionContext = executionContext;
         this.id = executionContext.nextId();
     }
 
+    /**
+     * Creates a map with the entries of the source map. Nested maps, collections and object arrays are
+     * copied as is and repacked (and accounted) only when they are accessed for the first time. Nested primitive
+     * arrays are repacked right away.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> ExecutionHashMap<K, V> lazyCopyOf(Map<? extends K, ? extends V> source, ExecutionContext executionContext) {
+        ExecutionHashMap<K, V> map = new ExecutionHashMap<>(source.size(), executionContext);
+        for (Map.Entry<? extends K, ? extends V> entry : source.entrySet()) {
+            V value = entry.getValue();
+            if (ArgsRepackUtil.isLazyRepackable(value)) {
+                map.putPending(entry.getKey(), value);
+            } else if (ArgsRepackUtil.isPrimitiveArray(value)) {
+                map.put(entry.getKey(), (V) ArgsRepackUtil.repack(executionContext, value));
+            } else {
+                map.put(entry.getKey(), value);
+            }
+        }
+        return map;
+    }
+
+    private void putPending(K key, V value) {
+        super.put(key, value);
+        this.pendingValues++;
+    }
+
+    private boolean isPending(Object value) {
+        return this.pendingValues > 0 && ArgsRepackUtil.isLazyRepackable(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V materialize(K key, V value) {
+        V repacked = (V) ArgsRepackUtil.repack(this.executionContext, value);
+        super.put(key, repacked);
+        this.pendingValues--;
+        this.memorySize += onValAdd(key, repacked);
+        return repacked;
+    }
+
+    private void materializeAll() {
+        if (this.pendingValues > 0) {
+            for (Map.Entry<K, V> entry : super.entrySet()) {
+                if (isPending(entry.getValue())) {
+                    materialize(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Hands the map over to the caller: severs the link to the execution context so that further modifications
+     * are no longer accounted, and detaches nested values in place. Values still pending repack are unpacked,
+     * so the detached map never shares structure with the script input.
+     */
+    @SuppressWarnings("unchecked")
+    public void detach() {
+        if (this.executionContext == null) {
+            return;
+        }
+        this.executionContext = null;
+        this.pendingValues = 0;
+        super.replaceAll((key, value) -> (V) ArgsRepackUtil.detach(value));
+    }
+
+    public boolean isDetached() {
+        return this.executionContext == null;
+    }
+
+    private long onValAdd(Object key, Object value) {
+        return this.executionContext != null ? this.executionContext.onValAdd(this, key, value) : 0;
+    }
+
+    private long onValRemove(Object key, Object value) {
+        return this.executionContext != null ? this.executionContext.onValRemove(this, key, value) : 0;
+    }
+
+    /**
+     * Iterates over the entries without materializing values that are still pending repack.
+     */
+    public void forEachRaw(BiConsumer<? super K, ? super V> action) {
+        super.forEach(action);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        V value = super.get(key);
+        if (isPending(value)) {
+            value = materialize((K) key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return containsKey(key) ? get(key) : defaultValue;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        materializeAll();
+        return super.entrySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        materializeAll();
+        return super.values();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        materializeAll();
+        super.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        materializeAll();
+        super.replaceAll(function);
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        materializeAll();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        materializeAll();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        materializeAll();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        materializeAll();
+        return super.merge(key, value, remappingFunction);
+    }
+
     @Override
     public V put(K key, V value) {
         if (containsKey(key)) {
-            V prevValue = this.get(key);
-            this.memorySize -= this.executionContext.onValRemove(this, key, prevValue);
+            V prevValue = super.get(key);
+            if (isPending(prevValue)) {
+                this.pendingValues--;
+            } else {
+                this.memorySize -= onValRemove(key, prevValue);
+            }
         }
         V res;
         if (value != null) {
             res = super.put(key, value);
-            this.memorySize += this.executionContext.onValAdd(this, key, value);
+            this.memorySize += onValAdd(key, value);
         } else {
             res = super.remove(key);
         }
@@ -37,41 +195,51 @@ public class ExecutionHashMap<K, V> extends LinkedHashMap<K, V> implements Execu
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
+        materializeAll();
         super.putAll(m);
         for (Map.Entry<? extends K, ? extends V> val : m.entrySet()) {
-            this.memorySize += this.executionContext.onValAdd(this, val.getKey(), val.getValue());
+            this.memorySize += onValAdd(val.getKey(), val.getValue());
         }
     }
 
     @Override
     public V putIfAbsent(K key, V value) {
+        materializeAll();
         if (!super.containsKey(key)) {
-            this.memorySize += this.executionContext.onValAdd(this, key, value);
+            this.memorySize += onValAdd(key, value);
         }
         return super.putIfAbsent(key, value);
     }
 
     @Override
     public boolean replace(K key, V oldValue, V newValue) {
+        materializeAll();
         boolean result = super.replace(key, oldValue, newValue);
         if(result){
-            this.memorySize -= this.executionContext.onValRemove(this, key, oldValue);
-            this.memorySize += this.executionContext.onValAdd(this, key, newValue);
+            this.memorySize -= onValRemove(key, oldValue);
+            this.memorySize += onValAdd(key, newValue);
         }
         return result;
     }
 
     @Override
     public V replace(K key, V value) {
-        this.memorySize += this.executionContext.onValAdd(this, key, value);
+        materializeAll();
+        this.memorySize += onValAdd(key, value);
         return super.replace(key, value);
     }
 
+    @Override
+    public void clear() {
+        super.clear();
+        this.pendingValues = 0;
+    }
+
     @Override
     public V remove(Object key) {
         if (containsKey(key)) {
             V value = this.get(key);
-            this.memorySize -= this.executionContext.onValRemove(this, key, value);
+            this.memorySize -= onValRemove(key, value);
         }
         return super.remove(key);
     }
@@ -89,6 +257,7 @@ public class ExecutionHashMap<K, V> extends LinkedHashMap<K, V> implements Execu
     @Override
     public String toString() {
         String res = super.toString();
-        return "(id=" + id + ") " + res;
+        // a detached value belongs to the caller, the id only makes sense within the execution
+        return isDetached() ? res : "(id=" + id + ") " + res;
     }
 }
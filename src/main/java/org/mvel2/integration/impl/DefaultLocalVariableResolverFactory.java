@@ -22,6 +22,7 @@ import org.mvel2.UnresolveablePropertyException;
 import org.mvel2.integration.VariableResolver;
 import org.mvel2.integration.VariableResolverFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -118,6 +119,28 @@ public class DefaultLocalVariableResolverFactory extends MapVariableResolverFact
     }
   }
 
+  /**
+   * Binds a {@link #release() released} frame to a new enclosing scope.
+   */
+  public DefaultLocalVariableResolverFactory reset(VariableResolverFactory nextFactory) {
+    this.nextFactory = nextFactory;
+    return this;
+  }
+
+  /**
+   * Unbinds all the variables of the frame and detaches it from its enclosing scope, so that it neither retains
+   * values nor state until it is {@link #reset(VariableResolverFactory) reused}.
+   */
+  public void release() {
+    nextFactory = null;
+    noTilt = false;
+    super.setTiltFlag(false);
+    clear();
+    if (indexedVariableResolvers != null) {
+      Arrays.fill(indexedVariableResolvers, null);
+    }
+  }
+
   private boolean noTilt = false;
 
   public VariableResolverFactory setNoTilt(boolean noTilt) {
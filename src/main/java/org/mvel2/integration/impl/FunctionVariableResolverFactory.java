@@ -22,17 +22,23 @@ import org.mvel2.ast.Function;
 import org.mvel2.integration.VariableResolver;
 import org.mvel2.integration.VariableResolverFactory;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 public class FunctionVariableResolverFactory extends BaseVariableResolverFactory implements LocalVariableResolverFactory {
   private Function function;
+  private final String[] slots;
 
   public FunctionVariableResolverFactory(Function function, VariableResolverFactory nextFactory, String[] indexedVariables, Object[] parameters) {
     this.function = function;
 
     this.variableResolvers = new HashMap<String, VariableResolver>();
     this.nextFactory = nextFactory;
-    this.indexedVariableResolvers = new VariableResolver[(this.indexedVariableNames = indexedVariables).length];
+    this.indexedVariableResolvers = new VariableResolver[(this.indexedVariableNames = this.slots = indexedVariables).length];
+    bindParameters(parameters);
+  }
+
+  private void bindParameters(Object[] parameters) {
     for (int i = 0; i < parameters.length; i++) {
       variableResolvers.put(indexedVariableNames[i], null);
       this.indexedVariableResolvers[i] = new SimpleValueResolver(parameters[i]);
@@ -40,6 +46,35 @@ public class FunctionVariableResolverFactory extends BaseVariableResolverFactory
     }
   }
 
+  /**
+   * Binds a {@link #release() released} frame to a new call of the same function, leaving it in the state of a
+   * newly constructed factory.
+   */
+  public FunctionVariableResolverFactory reset(VariableResolverFactory nextFactory, Object[] parameters) {
+    this.nextFactory = nextFactory;
+    bindParameters(parameters);
+    return this;
+  }
+
+  /**
+   * Unbinds all the variables of the frame and detaches it from the calling scope, so that it neither retains
+   * values nor state once the call has returned. Variables created beyond the indexed slots are dropped.
+   */
+  public void release() {
+    nextFactory = null;
+    noTilt = false;
+    super.setTiltFlag(false);
+    indexOffset = 0;
+    variableResolvers.clear();
+    if (indexedVariableNames != slots || indexedVariableResolvers.length != slots.length) {
+      indexedVariableNames = slots;
+      indexedVariableResolvers = new VariableResolver[slots.length];
+    }
+    else {
+      Arrays.fill(indexedVariableResolvers, null);
+    }
+  }
+
   public boolean isResolveable(String name) {
     return variableResolvers.containsKey(name) || (nextFactory != null && nextFactory.isResolveable(name));
   }
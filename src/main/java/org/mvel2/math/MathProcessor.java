@@ -42,6 +42,7 @@ import static org.mvel2.util.Soundex.soundex;
  */
 public strictfp class MathProcessor {
   private static final MathContext MATH_CONTEXT = MathContext.DECIMAL128;
+  private static final long MAX_EXACT_DOUBLE = 1L << 53;
 
   public static Object doOperations(Object val1, int operation, Object val2) {
     return doOperations(val1 == null ? DataTypes.OBJECT : __resolveType(val1.getClass()),
@@ -205,6 +206,9 @@ public strictfp class MathProcessor {
               (isIntegerType(type1) && isIntegerType(type2) && operation >= BW_AND && operation <= BW_NOT)) {
         return doOperationsSameType(type1, val1, operation, val2);
       }
+      else if (val1 != null && val2 != null && isExactIntegralOperation(type1, operation, type2)) {
+        return doExactIntegralArithmetic(type1, val1, operation, type2, val2);
+      }
       else if (val2 != null && isNumericOperation(type1, val1, operation, type2, val2)) {
         return doPrimWrapperArithmetic(getNumber(val1, type1), operation,
             getNumber(val2, type2), Math.max(box(type2), box(type1)));
@@ -233,6 +237,108 @@ public strictfp class MathProcessor {
         || (operation != ADD && (type1 >= 99 || type2 >= 99 || operation < LTHAN || operation > GETHAN) && isNumber(val1) && isNumber(val2));
   }
 
+  /**
+   * Whether the operation is arithmetic or a comparison between two integral values of which at least one is a
+   * <tt>Long</tt> or a <tt>BigInteger</tt>, which would lose precision through <tt>double</tt>.
+   */
+  private static boolean isExactIntegralOperation(int type1, int operation, int type2) {
+    return operation != POWER && (operation < BW_AND || operation > BW_NOT)
+        && (isIntegerType(type1) || type1 == DataTypes.BIG_INTEGER || type1 == DataTypes.SHORT || type1 == DataTypes.W_SHORT)
+        && (isIntegerType(type2) || type2 == DataTypes.BIG_INTEGER || type2 == DataTypes.SHORT || type2 == DataTypes.W_SHORT)
+        && Math.max(box(type1), box(type2)) >= DataTypes.W_LONG;
+  }
+
+  private static Object doExactIntegralArithmetic(int type1, Object val1, int operation, int type2, Object val2) {
+    if (type1 == DataTypes.BIG_INTEGER || type2 == DataTypes.BIG_INTEGER) {
+      return doOperationsSameType(DataTypes.BIG_INTEGER, asBigInteger(val1), operation, asBigInteger(val2));
+    }
+
+    long l1 = toLong(val1);
+    long l2 = toLong(val2);
+    switch (operation) {
+      case ADD:
+        return addExact(l1, l2);
+      case SUB:
+        return subtractExact(l1, l2);
+      case MULT:
+        return multiplyExact(l1, l2);
+      case DIV:
+        if (l2 == 0) break;
+        if (l2 == -1) return subtractExact(0, l1);
+        return l1 / l2;
+      case MOD:
+        if (l2 == 0) break;
+        return l1 % l2;
+      case GTHAN:
+        return l1 > l2;
+      case GETHAN:
+        return l1 >= l2;
+      case LTHAN:
+        return l1 < l2;
+      case LETHAN:
+        return l1 <= l2;
+      case EQUAL:
+        return l1 == l2;
+      case NEQUAL:
+        return l1 != l2;
+    }
+    return doPrimWrapperArithmetic(getNumber(val1, type1), operation, getNumber(val2, type2), DataTypes.W_LONG);
+  }
+
+  /**
+   * @return the sum as a <tt>Long</tt>, or as a <tt>BigInteger</tt> if it overflows
+   */
+  private static Number addExact(long val1, long val2) {
+    try {
+      return Math.addExact(val1, val2);
+    }
+    catch (ArithmeticException e) {
+      return BigInteger.valueOf(val1).add(BigInteger.valueOf(val2));
+    }
+  }
+
+  /**
+   * @return the difference as a <tt>Long</tt>, or as a <tt>BigInteger</tt> if it overflows
+   */
+  private static Number subtractExact(long val1, long val2) {
+    try {
+      return Math.subtractExact(val1, val2);
+    }
+    catch (ArithmeticException e) {
+      return BigInteger.valueOf(val1).subtract(BigInteger.valueOf(val2));
+    }
+  }
+
+  /**
+   * @return the product as a <tt>Long</tt>, or as a <tt>BigInteger</tt> if it overflows
+   */
+  private static Number multiplyExact(long val1, long val2) {
+    try {
+      return Math.multiplyExact(val1, val2);
+    }
+    catch (ArithmeticException e) {
+      return BigInteger.valueOf(val1).multiply(BigInteger.valueOf(val2));
+    }
+  }
+
+  /**
+   * @return the quotient of two longs rounded once to a <tt>double</tt>, even if the operands themselves cannot be
+   * represented exactly as <tt>double</tt>s; division by zero yields an infinity (or NaN), as for small operands
+   */
+  private static double divide(long val1, long val2) {
+    if (val2 == 0 || (isExactDouble(val1) && isExactDouble(val2))) {
+      return (double) val1 / (double) val2;
+    }
+    return BigDecimal.valueOf(val1).divide(BigDecimal.valueOf(val2), MATH_CONTEXT).doubleValue();
+  }
+
+  /**
+   * @return whether the value is within the range of integers which are exactly representable as <tt>double</tt>s
+   */
+  public static boolean isExactDouble(long val) {
+    return val >= -MAX_EXACT_DOUBLE && val <= MAX_EXACT_DOUBLE;
+  }
+
   private static boolean isIntegerType(int type) {
     return type == DataTypes.BYTE || type == DataTypes.W_BYTE || type == DataTypes.INTEGER || type == DataTypes.W_INTEGER || type == DataTypes.LONG || type == DataTypes.W_LONG;
   }
@@ -511,13 +617,13 @@ public strictfp class MathProcessor {
       case DataTypes.W_LONG:
         switch (operation) {
           case ADD:
-            return toLong(val1) + toLong(val2);
+            return addExact(toLong(val1), toLong(val2));
           case SUB:
-            return toLong(val1) - toLong(val2);
+            return subtractExact(toLong(val1), toLong(val2));
           case DIV:
-            return toDouble(val1) / toDouble(val2);
+            return divide(toLong(val1), toLong(val2));
           case MULT:
-            return toLong(val1) * toLong(val2);
+            return multiplyExact(toLong(val1), toLong(val2));
           case POWER:
             double d = Math.pow(toLong(val1), toLong(val2));
             if (d > Long.MAX_VALUE) return d;
@@ -762,6 +868,10 @@ public strictfp class MathProcessor {
   }
 
 
+  private static BigInteger asBigInteger(Object in) {
+    return in instanceof BigInteger ? (BigInteger) in : BigInteger.valueOf(((Number) in).longValue());
+  }
+
   private static BigDecimal asBigDecimal(Object in) {
     if (in == null || in == BlankLiteral.INSTANCE) {
       return null;
@@ -0,0 +1,117 @@
+package org.mvel2.optimizers.dynamic;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Invocation profile of a dynamic accessor, consulted by its {@link TieringPolicy}.
+ */
+public final class AccessorProfile {
+  private long invocations;
+
+  private int windowInvocations;
+  private long windowStart = currentTimeMillis();
+
+  private boolean timingRequested;
+  private long timedInvocations;
+  private long timedNanos;
+
+  private double decayedCost;
+  private long costStamp = System.nanoTime();
+
+  public long getInvocations() {
+    return invocations;
+  }
+
+  /**
+   * @return invocations since the start of the current window
+   */
+  public int getWindowInvocations() {
+    return windowInvocations;
+  }
+
+  /**
+   * @return start of the current window, in milliseconds
+   */
+  public long getWindowStart() {
+    return windowStart;
+  }
+
+  public void resetWindow(long windowStart) {
+    this.windowInvocations = 0;
+    this.windowStart = windowStart;
+  }
+
+  /**
+   * Requests the upcoming invocation to be timed.
+   */
+  public void requestTiming() {
+    timingRequested = true;
+  }
+
+  public long getTimedInvocations() {
+    return timedInvocations;
+  }
+
+  public long getTimedNanos() {
+    return timedNanos;
+  }
+
+  /**
+   * @return average time of the timed invocations, in nanoseconds
+   */
+  public double getAverageNanos() {
+    return timedInvocations == 0 ? 0 : (double) timedNanos / timedInvocations;
+  }
+
+  /**
+   * @return policy defined cost accumulated by the accessor
+   */
+  public double getDecayedCost() {
+    return decayedCost;
+  }
+
+  /**
+   * @return {@link System#nanoTime()} of the last cost update
+   */
+  public long getCostStamp() {
+    return costStamp;
+  }
+
+  public void setDecayedCost(double decayedCost, long costStamp) {
+    this.decayedCost = decayedCost;
+    this.costStamp = costStamp;
+  }
+
+  boolean shouldPromote(TieringPolicy policy) {
+    invocations++;
+    windowInvocations++;
+    return policy.shouldPromote(this);
+  }
+
+  void countInvocation() {
+    invocations++;
+    windowInvocations++;
+  }
+
+  boolean consumeTimingRequest() {
+    if (timingRequested) {
+      timingRequested = false;
+      return true;
+    }
+    return false;
+  }
+
+  void recordTime(long nanos) {
+    timedInvocations++;
+    timedNanos += nanos;
+  }
+
+  void reset() {
+    invocations = 0;
+    resetWindow(currentTimeMillis());
+    timingRequested = false;
+    timedInvocations = 0;
+    timedNanos = 0;
+    setDecayedCost(0, System.nanoTime());
+  }
+}
@@ -0,0 +1,124 @@
+package org.mvel2.optimizers.dynamic;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded executor promoting dynamic accessors to method handle accessors off the request thread. No bytecode is
+ * generated: the compile times it reports are the times spent linking the method handle chains.
+ * Installed with {@link DynamicOptimizer#setBackgroundCompiler(BackgroundCompiler)}.
+ * <p>
+ * While a promotion is queued or running, the accessor keeps serving requests with its reflective implementation;
+ * the promoted accessor is swapped in once it is linked. When the queue is full the promotion is rejected and
+ * retried after the accessor crosses the tenuring threshold again.
+ */
+public class BackgroundCompiler {
+  private static final AtomicInteger poolSequence = new AtomicInteger();
+
+  private final ThreadPoolExecutor executor;
+
+  private final LongAdder submitted = new LongAdder();
+  private final LongAdder completed = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder totalCompileNanos = new LongAdder();
+  private final AtomicLong maxCompileNanos = new AtomicLong();
+
+  public BackgroundCompiler() {
+    this(1, 1024);
+  }
+
+  /**
+   * @param threads       - number of compiler threads
+   * @param queueCapacity - maximum number of pending promotions
+   */
+  public BackgroundCompiler(int threads, int queueCapacity) {
+    final String prefix = "mvel-jit-" + poolSequence.incrementAndGet() + "-";
+    executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<Runnable>(queueCapacity), new ThreadFactory() {
+      private final AtomicInteger threadSequence = new AtomicInteger();
+
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, prefix + threadSequence.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    }, new ThreadPoolExecutor.AbortPolicy());
+    executor.allowCoreThreadTimeOut(true);
+  }
+
+  boolean submit(final Runnable promotion) {
+    try {
+      executor.execute(new Runnable() {
+        public void run() {
+          long time = System.nanoTime();
+          try {
+            promotion.run();
+            completed.increment();
+          }
+          catch (Throwable e) {
+            failed.increment();
+          }
+          finally {
+            time = System.nanoTime() - time;
+            totalCompileNanos.add(time);
+            long max;
+            while ((max = maxCompileNanos.get()) < time && !maxCompileNanos.compareAndSet(max, time)) ;
+          }
+        }
+      });
+      submitted.increment();
+      return true;
+    }
+    catch (RejectedExecutionException e) {
+      rejected.increment();
+      return false;
+    }
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  public long getSubmittedCount() {
+    return submitted.sum();
+  }
+
+  public long getCompletedCount() {
+    return completed.sum();
+  }
+
+  public long getFailedCount() {
+    return failed.sum();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+
+  public long getTotalCompileNanos() {
+    return totalCompileNanos.sum();
+  }
+
+  public long getMaxCompileNanos() {
+    return maxCompileNanos.get();
+  }
+
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return executor.awaitTermination(timeout, unit);
+  }
+}
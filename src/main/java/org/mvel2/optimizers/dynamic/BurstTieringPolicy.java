@@ -0,0 +1,43 @@
+package org.mvel2.optimizers.dynamic;
+
+import static java.lang.System.currentTimeMillis;
+
+/**
+ * Promotes an accessor once it is invoked more than a threshold number of times within a time window, otherwise
+ * starts a new window. {@link #DEFAULT} reads {@link DynamicOptimizer#tenuringThreshold} and
+ * {@link DynamicOptimizer#timeSpan} on every decision.
+ */
+public class BurstTieringPolicy implements TieringPolicy {
+  public static final TieringPolicy DEFAULT = new TieringPolicy() {
+    public boolean shouldPromote(AccessorProfile profile) {
+      return BurstTieringPolicy.shouldPromote(profile, DynamicOptimizer.tenuringThreshold, DynamicOptimizer.timeSpan);
+    }
+  };
+
+  private final int threshold;
+  private final long timeSpan;
+
+  /**
+   * @param threshold - number of invocations within the window required for promotion
+   * @param timeSpan  - length of the window, in milliseconds
+   */
+  public BurstTieringPolicy(int threshold, long timeSpan) {
+    this.threshold = threshold;
+    this.timeSpan = timeSpan;
+  }
+
+  public boolean shouldPromote(AccessorProfile profile) {
+    return shouldPromote(profile, threshold, timeSpan);
+  }
+
+  private static boolean shouldPromote(AccessorProfile profile, int threshold, long timeSpan) {
+    if (profile.getWindowInvocations() > threshold) {
+      long now = currentTimeMillis();
+      if (now - profile.getWindowStart() < timeSpan) {
+        return true;
+      }
+      profile.resetWindow(now);
+    }
+    return false;
+  }
+}
@@ -0,0 +1,61 @@
+package org.mvel2.optimizers.dynamic;
+
+/**
+ * Promotes an accessor once the time it has spent in its reflective implementation, decayed with a half-life,
+ * reaches the expected cost of compiling it. Steadily used accessors are promoted regardless of their rate, while
+ * short bursts of rarely used accessors decay away before they are worth compiling.
+ * <p>
+ * Every <tt>sampleInterval</tt>-th invocation is timed, and the accumulated cost is updated once per interval
+ * from the average sampled time.
+ * <p>
+ * This is not the default policy of {@link DynamicOptimizer}: see {@link DynamicOptimizer#setDefaultTieringPolicy}.
+ */
+public class CostTieringPolicy implements TieringPolicy {
+  public static final long DEFAULT_PROMOTION_COST_NANOS = 500000L;
+  public static final long DEFAULT_HALF_LIFE_NANOS = 300000000000L;
+  public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+  private final double promotionCostNanos;
+  private final double halfLifeNanos;
+  private final int sampleInterval;
+
+  public CostTieringPolicy() {
+    this(DEFAULT_PROMOTION_COST_NANOS, DEFAULT_HALF_LIFE_NANOS, DEFAULT_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * @param promotionCostNanos - accumulated reflective time that triggers promotion
+   * @param halfLifeNanos      - half-life of the accumulated time
+   * @param sampleInterval     - number of invocations per timing sample
+   */
+  public CostTieringPolicy(long promotionCostNanos, long halfLifeNanos, int sampleInterval) {
+    if (sampleInterval <= 0) {
+      throw new IllegalArgumentException("sample interval should be positive: " + sampleInterval);
+    }
+    this.promotionCostNanos = promotionCostNanos;
+    this.halfLifeNanos = halfLifeNanos;
+    this.sampleInterval = sampleInterval;
+  }
+
+  public boolean shouldPromote(AccessorProfile profile) {
+    long invocations = profile.getInvocations();
+    if (invocations % sampleInterval == 1 || sampleInterval == 1) {
+      profile.requestTiming();
+    }
+    if (invocations % sampleInterval != 0 || profile.getTimedInvocations() == 0) {
+      return false;
+    }
+    long now = nanoTime();
+    double decay = Math.pow(0.5, (now - profile.getCostStamp()) / halfLifeNanos);
+    double cost = profile.getDecayedCost() * decay + sampleInterval * profile.getAverageNanos();
+    profile.setDecayedCost(cost, now);
+    return cost >= promotionCostNanos;
+  }
+
+  /**
+   * @return the current time of the policy clock, in nanoseconds, comparable with {@link System#nanoTime()}
+   */
+  protected long nanoTime() {
+    return System.nanoTime();
+  }
+}
@@ -20,52 +20,76 @@ package org.mvel2.optimizers.dynamic;
 
 import org.mvel2.util.MVELClassLoader;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
+/**
+ * Class loader registered as the MVEL class loader by the {@link DynamicOptimizer}. Accessor classes are normally
+ * defined in class loaders of their own with this loader's parent (see
+ * {@link org.mvel2.optimizers.impl.asm.ASMAccessorOptimizer}), so they are unloaded with their accessors; only
+ * classes defined directly through {@link #defineClassX} count towards the tenure limit.
+ */
 public class DynamicClassLoader extends ClassLoader implements MVELClassLoader {
-  private int totalClasses;
+  static {
+    registerAsParallelCapable();
+  }
+
+  /**
+   * Every dynamic accessor is registered when it is created, so the weak registry is split into stripes locked
+   * separately, and concurrent compilations rarely contend for the same lock.
+   */
+  private static final int STRIPES = 16;
+
+  private final AtomicInteger totalClasses = new AtomicInteger();
   private int tenureLimit;
-  private final LinkedList<DynamicAccessor> allAccessors = new LinkedList<DynamicAccessor>();
+  private final Set<DynamicAccessor>[] allAccessors;
 
+  @SuppressWarnings("unchecked")
   public DynamicClassLoader(ClassLoader classLoader, int tenureLimit) {
     super(classLoader);
     this.tenureLimit = tenureLimit;
+    this.allAccessors = new Set[STRIPES];
+    for (int i = 0; i < STRIPES; i++) {
+      allAccessors[i] = Collections.newSetFromMap(new WeakHashMap<DynamicAccessor, Boolean>());
+    }
   }
 
   public Class defineClassX(String className, byte[] b, int start, int end) {
-    totalClasses++;
+    totalClasses.incrementAndGet();
     return super.defineClass(className, b, start, end);
   }
 
   public int getTotalClasses() {
-    return totalClasses;
+    return totalClasses.get();
   }
 
   public DynamicAccessor registerDynamicAccessor(DynamicAccessor accessor) {
-    synchronized (allAccessors) {
-      allAccessors.add(accessor);
-      while (allAccessors.size() > tenureLimit) {
-        DynamicAccessor da = allAccessors.removeFirst();
-        if (da != null) {
-          da.deoptimize();
-        }
-      }
-      assert accessor != null;
-      return accessor;
+    assert accessor != null;
+    Set<DynamicAccessor> stripe = allAccessors[System.identityHashCode(accessor) & (STRIPES - 1)];
+    synchronized (stripe) {
+      stripe.add(accessor);
     }
+    return accessor;
   }
 
   public void deoptimizeAll() {
-    synchronized (allAccessors) {
-      for (DynamicAccessor a : allAccessors) {
-        if (a != null) a.deoptimize();
+    ArrayList<DynamicAccessor> accessors = new ArrayList<DynamicAccessor>();
+    for (Set<DynamicAccessor> stripe : allAccessors) {
+      synchronized (stripe) {
+        accessors.addAll(stripe);
+        stripe.clear();
       }
-      allAccessors.clear();
+    }
+    for (DynamicAccessor a : accessors) {
+      a.deoptimize();
     }
   }
 
   public boolean isOverloaded() {
-    return tenureLimit < totalClasses;
+    return tenureLimit < totalClasses.get();
   }
 }
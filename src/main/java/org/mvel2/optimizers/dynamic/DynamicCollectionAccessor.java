@@ -23,8 +23,6 @@ import org.mvel2.compiler.Accessor;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.OptimizerFactory;
 
-import static java.lang.System.currentTimeMillis;
-
 public class DynamicCollectionAccessor implements DynamicAccessor {
   private ParserContext pCtx;
   private Object rootObject;
@@ -34,10 +32,10 @@ public class DynamicCollectionAccessor implements DynamicAccessor {
   private int start;
   private int offset;
 
-  private long stamp;
   private int type;
 
-  private int runcount;
+  private final AccessorProfile profile = new AccessorProfile();
+  private final TieringPolicy tieringPolicy;
 
   private boolean opt = false;
 
@@ -55,21 +53,21 @@ public class DynamicCollectionAccessor implements DynamicAccessor {
     this.start = start;
     this.offset = offset;
 
-    stamp = currentTimeMillis();
+    this.tieringPolicy = DynamicOptimizer.getTieringPolicy(pCtx);
   }
 
   public Object getValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory) {
     if (!opt) {
-      if (++runcount > DynamicOptimizer.tenuringThreshold) {
-        if ((currentTimeMillis() - stamp) < DynamicOptimizer.timeSpan) {
-          opt = true;
-
-          return optimize(pCtx, ctx, elCtx, variableFactory);
-        }
-        else {
-          runcount = 0;
-          stamp = currentTimeMillis();
-        }
+      if (profile.shouldPromote(tieringPolicy)) {
+        opt = true;
+
+        return optimize(pCtx, ctx, elCtx, variableFactory);
+      }
+      else if (profile.consumeTimingRequest()) {
+        long time = System.nanoTime();
+        Object value = _accessor.getValue(ctx, elCtx, variableFactory);
+        profile.recordTime(System.nanoTime() - time);
+        return value;
       }
     }
 
@@ -77,7 +75,7 @@ public class DynamicCollectionAccessor implements DynamicAccessor {
   }
 
   public Object setValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory, Object value) {
-    runcount++;
+    profile.countInvocation();
     return _accessor.setValue(ctx, elCtx, variableFactory, value);
   }
 
@@ -96,16 +94,19 @@ public class DynamicCollectionAccessor implements DynamicAccessor {
   public void deoptimize() {
     this._accessor = this._safeAccessor;
     opt = false;
-    runcount = 0;
-    stamp = currentTimeMillis();
+    profile.reset();
   }
 
   public long getStamp() {
-    return stamp;
+    return profile.getWindowStart();
   }
 
   public int getRuncount() {
-    return runcount;
+    return profile.getWindowInvocations();
+  }
+
+  public AccessorProfile getProfile() {
+    return profile;
   }
 
   public Class getKnownEgressType() {
@@ -20,29 +20,44 @@ package org.mvel2.optimizers.dynamic;
 
 import org.mvel2.ParserContext;
 import org.mvel2.compiler.Accessor;
+import org.mvel2.compiler.AccessorNode;
 import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.AccessorOptimizer;
 import org.mvel2.optimizers.OptimizationNotSupported;
 import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.optimizers.impl.handles.MethodHandleAccessorOptimizer;
+import org.mvel2.optimizers.impl.handles.MethodHandleFieldAccessor;
+import org.mvel2.optimizers.impl.handles.MethodHandleGetterAccessor;
+import org.mvel2.optimizers.impl.handles.MethodHandleMethodAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.ArrayAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.FieldAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.GetterAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.ListAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.MapAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.MethodAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.ThisValueAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.VariableAccessor;
 
-import static java.lang.System.currentTimeMillis;
+import java.util.ArrayList;
+import java.util.List;
 
 public class DynamicGetAccessor implements DynamicAccessor {
   private char[] expr;
   private int start;
   private int offset;
 
-  private long stamp;
   private int type;
 
-  private int runcount;
+  private final AccessorProfile profile = new AccessorProfile();
+  private final TieringPolicy tieringPolicy;
 
   private boolean opt = false;
 
   private ParserContext pCtx;
 
   private Accessor _safeAccessor;
-  private Accessor _accessor;
+  private volatile Accessor _accessor;
+  private volatile int generation;
 
   public DynamicGetAccessor(ParserContext pCtx, char[] expr, int start, int offset, int type, Accessor _accessor) {
     this._safeAccessor = this._accessor = _accessor;
@@ -53,25 +68,28 @@ public class DynamicGetAccessor implements DynamicAccessor {
     this.offset = offset;
 
     this.pCtx = pCtx;
-    stamp = currentTimeMillis();
+    this.tieringPolicy = DynamicOptimizer.getTieringPolicy(pCtx);
   }
 
   public Object getValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory) {
     if (!opt) {
-      if (++runcount > DynamicOptimizer.tenuringThreshold) {
-        if ((currentTimeMillis() - stamp) < DynamicOptimizer.timeSpan) {
-          opt = true;
-          try{
-            return optimize(ctx, elCtx, variableFactory);
-          }
-          catch(OptimizationNotSupported ex){
-        	  // If optimization fails then, rather than fail evaluation, fallback to use safe reflective accessor
-          }
+      if (profile.shouldPromote(tieringPolicy)) {
+        opt = true;
+        if (promoteInBackground()) {
+          return _accessor.getValue(ctx, elCtx, variableFactory);
         }
-        else {
-          runcount = 0;
-          stamp = currentTimeMillis();
+        try{
+          return optimize(ctx, elCtx, variableFactory);
         }
+        catch(OptimizationNotSupported ex){
+      	  // If optimization fails then, rather than fail evaluation, fallback to use safe reflective accessor
+        }
+      }
+      else if (profile.consumeTimingRequest()) {
+        long time = System.nanoTime();
+        Object value = _accessor.getValue(ctx, elCtx, variableFactory);
+        profile.recordTime(System.nanoTime() - time);
+        return value;
       }
     }
 
@@ -79,10 +97,111 @@ public class DynamicGetAccessor implements DynamicAccessor {
   }
 
   public Object setValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory, Object value) {
-    runcount++;
+    profile.countInvocation();
     return _accessor.setValue(ctx, elCtx, variableFactory, value);
   }
 
+  /**
+   * Hands the promotion of a property accessor to the background compiler, if one is installed. The links of the
+   * reflective chain are copied on the request thread and the compiler thread only turns the copies into method
+   * handle nodes: it never evaluates the chain, nor sees the context, the variables or the values of the request,
+   * so sandboxed executions are promoted in the background as well. Chains with nodes that cannot be copied that
+   * way are promoted synchronously with ASM.
+   */
+  private boolean promoteInBackground() {
+    BackgroundCompiler compiler = DynamicOptimizer.getBackgroundCompiler();
+    if (compiler == null || type != DynamicOptimizer.REGULAR_ACCESSOR) {
+      return false;
+    }
+    final AccessorNode[] links = snapshot(_safeAccessor);
+    if (links == null) {
+      return false;
+    }
+    final int gen = generation;
+    if (!compiler.submit(new Runnable() {
+      public void run() {
+        Accessor accessor = link(links);
+        if (gen == generation) {
+          _accessor = accessor;
+        }
+      }
+    })) {
+      profile.reset();
+      opt = false;
+    }
+    return true;
+  }
+
+  /**
+   * @return unlinked copies of the nodes of the chain, sharing no state with it: variables, <tt>this</tt>, getters,
+   * fields, map keys, constant list and array indexes and method invocations (with their compiled parameters); or
+   * <tt>null</tt> if the chain has other nodes
+   */
+  private static AccessorNode[] snapshot(Accessor accessor) {
+    List<AccessorNode> links = new ArrayList<AccessorNode>();
+    for (AccessorNode node = accessor instanceof AccessorNode ? (AccessorNode) accessor : null; node != null;
+         node = node.getNextNode()) {
+      if (node.getClass() == VariableAccessor.class) {
+        links.add(new VariableAccessor(String.valueOf(((VariableAccessor) node).getProperty())));
+      }
+      else if (node.getClass() == ThisValueAccessor.class) {
+        links.add(new ThisValueAccessor());
+      }
+      else if (node.getClass() == GetterAccessor.class) {
+        links.add(new GetterAccessor(((GetterAccessor) node).getMethod()));
+      }
+      else if (node.getClass() == MethodHandleGetterAccessor.class) {
+        links.add(new GetterAccessor(((MethodHandleGetterAccessor) node).getMethod()));
+      }
+      else if (node.getClass() == FieldAccessor.class) {
+        links.add(new FieldAccessor(((FieldAccessor) node).getField()));
+      }
+      else if (node.getClass() == MethodHandleFieldAccessor.class) {
+        links.add(new FieldAccessor(((MethodHandleFieldAccessor) node).getField()));
+      }
+      else if (node.getClass() == MapAccessor.class) {
+        links.add(new MapAccessor(((MapAccessor) node).getProperty()));
+      }
+      else if (node.getClass() == ListAccessor.class) {
+        links.add(new ListAccessor(((ListAccessor) node).getIndex()));
+      }
+      else if (node.getClass() == ArrayAccessor.class) {
+        links.add(new ArrayAccessor(((ArrayAccessor) node).getIndex()));
+      }
+      else if (node.getClass() == MethodAccessor.class) {
+        MethodAccessor method = (MethodAccessor) node;
+        links.add(new MethodAccessor(method.getMethod(), method.getParms()));
+      }
+      else if (node.getClass() == MethodHandleMethodAccessor.class) {
+        MethodHandleMethodAccessor method = (MethodHandleMethodAccessor) node;
+        links.add(new MethodAccessor(method.getMethod(), method.getParms()));
+      }
+      else {
+        return null;
+      }
+    }
+    return links.isEmpty() ? null : links.toArray(new AccessorNode[links.size()]);
+  }
+
+  /**
+   * Links the copies of a {@link #snapshot(Accessor)} into a new chain, with getters, fields and methods accessed
+   * through method handles.
+   */
+  private static Accessor link(AccessorNode[] links) {
+    AccessorNode root = null;
+    AccessorNode last = null;
+    for (AccessorNode link : links) {
+      AccessorNode node = MethodHandleAccessorOptimizer.toHandleNode(link);
+      if (root == null) {
+        root = last = node;
+      }
+      else {
+        last = last.setNextNode(node);
+      }
+    }
+    return root;
+  }
+
   private Object optimize(Object ctx, Object elCtx, VariableResolverFactory variableResolverFactory) {
 
     if (DynamicOptimizer.isOverloaded()) {
@@ -105,18 +224,22 @@ public class DynamicGetAccessor implements DynamicAccessor {
   }
 
   public void deoptimize() {
+    generation++;
     this._accessor = this._safeAccessor;
     opt = false;
-    runcount = 0;
-    stamp = currentTimeMillis();
+    profile.reset();
   }
 
   public long getStamp() {
-    return stamp;
+    return profile.getWindowStart();
   }
 
   public int getRuncount() {
-    return runcount;
+    return profile.getWindowInvocations();
+  }
+
+  public AccessorProfile getProfile() {
+    return profile;
   }
 
   public Class getKnownEgressType() {
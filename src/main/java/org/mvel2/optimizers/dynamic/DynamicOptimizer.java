@@ -44,6 +44,8 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
   public static int maximumTenure = 1500;
   public static int totalRecycled = 0;
   private static volatile boolean useSafeClassloading = false;
+  private static volatile BackgroundCompiler backgroundCompiler;
+  private static volatile TieringPolicy defaultTieringPolicy = BurstTieringPolicy.DEFAULT;
   private static ReadWriteLock lock = new ReentrantReadWriteLock();
   private static Lock readLock = lock.readLock();
   private static Lock writeLock = lock.writeLock();
@@ -70,6 +72,46 @@ public class DynamicOptimizer extends AbstractOptimizer implements AccessorOptim
 	  }
   }
 
+  /**
+   * Installs the executor used to promote property accessors in the background, instead of on the request thread
+   * crossing the tenuring threshold. Passing <tt>null</tt> restores synchronous promotion.
+   * <p>
+   * A background promotion links the members resolved by the reflective accessor (variables, getters, fields, map
+   * keys, constant indexes and methods) into a method handle chain, without evaluating it, so it applies to
+   * sandboxed executions too. It never generates ASM accessors: other accessors are still compiled with ASM on the
+   * request thread.
+   *
+   * @param compiler - the background compiler, or <tt>null</tt>
+   */
+  public static void setBackgroundCompiler(BackgroundCompiler compiler) {
+    backgroundCompiler = compiler;
+  }
+
+  public static BackgroundCompiler getBackgroundCompiler() {
+    return backgroundCompiler;
+  }
+
+  /**
+   * Sets the tiering policy of accessors compiled without a policy in their {@link org.mvel2.ParserConfiguration}.
+   * Defaults to {@link BurstTieringPolicy#DEFAULT}, which keeps {@link #tenuringThreshold} and {@link #timeSpan}
+   * effective for existing deployments tuned with them; {@link CostTieringPolicy} also promotes steadily used
+   * accessors invoked below that rate, and should be installed here or per configuration to opt in.
+   *
+   * @param policy - the tiering policy
+   */
+  public static void setDefaultTieringPolicy(TieringPolicy policy) {
+    defaultTieringPolicy = policy == null ? BurstTieringPolicy.DEFAULT : policy;
+  }
+
+  public static TieringPolicy getDefaultTieringPolicy() {
+    return defaultTieringPolicy;
+  }
+
+  static TieringPolicy getTieringPolicy(ParserContext pCtx) {
+    TieringPolicy policy = pCtx != null ? pCtx.getParserConfiguration().getTieringPolicy() : null;
+    return policy != null ? policy : defaultTieringPolicy;
+  }
+
   public static final int REGULAR_ACCESSOR = 0;
 
   public Accessor optimizeAccessor(ParserContext pCtx, char[] property, int start, int offset, Object ctx, Object thisRef,
@@ -24,16 +24,15 @@ import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.AccessorOptimizer;
 import org.mvel2.optimizers.OptimizerFactory;
 
-import static java.lang.System.currentTimeMillis;
-
 public class DynamicSetAccessor implements DynamicAccessor {
   private char[] property;
   private int start;
   private int offset;
 
   private boolean opt = false;
-  private int runcount = 0;
-  private long stamp;
+
+  private final AccessorProfile profile = new AccessorProfile();
+  private final TieringPolicy tieringPolicy;
 
   private ParserContext context;
   private final Accessor _safeAccessor;
@@ -49,20 +48,20 @@ public class DynamicSetAccessor implements DynamicAccessor {
     this.start = start;
     this.offset = offset;
 
-    this.stamp = System.currentTimeMillis();
+    this.tieringPolicy = DynamicOptimizer.getTieringPolicy(context);
   }
 
   public Object setValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory, Object value) {
     if (!opt) {
-      if (++runcount > DynamicOptimizer.tenuringThreshold) {
-        if ((currentTimeMillis() - stamp) < DynamicOptimizer.timeSpan) {
-          opt = true;
-          return optimize(ctx, elCtx, variableFactory, value);
-        }
-        else {
-          runcount = 0;
-          stamp = currentTimeMillis();
-        }
+      if (profile.shouldPromote(tieringPolicy)) {
+        opt = true;
+        return optimize(ctx, elCtx, variableFactory, value);
+      }
+      else if (profile.consumeTimingRequest()) {
+        long time = System.nanoTime();
+        _accessor.setValue(ctx, elCtx, variableFactory, value);
+        profile.recordTime(System.nanoTime() - time);
+        return value;
       }
     }
 
@@ -90,8 +89,11 @@ public class DynamicSetAccessor implements DynamicAccessor {
   public void deoptimize() {
     this._accessor = this._safeAccessor;
     opt = false;
-    runcount = 0;
-    stamp = currentTimeMillis();
+    profile.reset();
+  }
+
+  public AccessorProfile getProfile() {
+    return profile;
   }
 
   public String getDescription() {
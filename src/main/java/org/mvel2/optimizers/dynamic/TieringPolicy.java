@@ -0,0 +1,21 @@
+package org.mvel2.optimizers.dynamic;
+
+/**
+ * Decides when a dynamic accessor is promoted from its reflective implementation to a JIT-compiled one.
+ * Configured per {@link org.mvel2.ParserConfiguration#setTieringPolicy(TieringPolicy)}, or JVM-wide with
+ * {@link DynamicOptimizer#setDefaultTieringPolicy(TieringPolicy)}.
+ * <p>
+ * Implementations must be thread-safe; profiles are owned by their accessors and updated without synchronization,
+ * so their counters are approximate under concurrent use.
+ */
+public interface TieringPolicy {
+  /**
+   * Called before every invocation of an accessor that has not been promoted yet, after its invocation count
+   * has been incremented. The policy may {@link AccessorProfile#requestTiming() request} the upcoming invocation
+   * to be timed.
+   *
+   * @param profile - the invocation profile of the accessor
+   * @return true to promote the accessor now
+   */
+  boolean shouldPromote(AccessorProfile profile);
+}
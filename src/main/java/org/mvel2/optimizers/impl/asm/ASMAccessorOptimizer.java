@@ -31,6 +31,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.mvel2.CompileException;
 import org.mvel2.DataConversion;
@@ -58,6 +59,7 @@ import org.mvel2.integration.VariableResolverFactory;
 import org.mvel2.optimizers.AbstractOptimizer;
 import org.mvel2.optimizers.AccessorOptimizer;
 import org.mvel2.optimizers.OptimizationNotSupported;
+import org.mvel2.optimizers.dynamic.DynamicClassLoader;
 import org.mvel2.optimizers.impl.refl.nodes.Union;
 import org.mvel2.util.JITClassLoader;
 import org.mvel2.util.MVELClassLoader;
@@ -209,6 +211,8 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 
   private VariableResolverFactory variableFactory;
 
+  private static final AtomicLong CLASS_NAME_SEQUENCE = new AtomicLong();
+
   private static final Object[] EMPTYARG = new Object[0];
   private static final Class[] EMPTYCLS = new Class[0];
 
@@ -259,6 +263,14 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
     deferFinish = true;
   }
 
+  /**
+   * Generated class names only have to be unique, so they are taken from a counter rather than
+   * serializing all JIT threads on a shared monitor.
+   */
+  private static String nextClassName() {
+    return "ASMAccessorImpl_" + CLASS_NAME_SEQUENCE.incrementAndGet();
+  }
+
   /**
    * Does all the boilerplate for initiating the JIT.
    */
@@ -269,12 +281,8 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 
     cw = new ClassWriter(ClassWriter.COMPUTE_MAXS + ClassWriter.COMPUTE_FRAMES);
 
-    synchronized (Runtime.getRuntime()) {
-      cw.visit(OPCODES_VERSION, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER, className = "ASMAccessorImpl_"
-          + valueOf(cw.hashCode()).replaceAll("\\-", "_") + (System.currentTimeMillis() / 10) +
-          ((int) (Math.random() * 100)),
-          null, "java/lang/Object", new String[]{NAMESPACE + "compiler/Accessor"});
-    }
+    cw.visit(OPCODES_VERSION, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER, className = nextClassName(),
+        null, "java/lang/Object", new String[]{NAMESPACE + "compiler/Accessor"});
 
     MethodVisitor m = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
 
@@ -300,12 +308,8 @@ public class ASMAccessorOptimizer extends AbstractOptimizer implements AccessorO
 
     cw = new ClassWriter(ClassWriter.COMPUTE_MAXS + ClassWriter.COMPUTE_FRAMES);
 
-    synchronized (Runtime.getRuntime()) {
-      cw.visit(OPCODES_VERSION, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER, className = "ASMAccessorImpl_"
-          + valueOf(cw.hashCode()).replaceAll("\\-", "_") + (System.currentTimeMillis() / 10) +
-          ((int) (Math.random() * 100)),
-          null, "java/lang/Object", new String[]{NAMESPACE + "compiler/Accessor"});
-    }
+    cw.visit(OPCODES_VERSION, Opcodes.ACC_PUBLIC + Opcodes.ACC_SUPER, className = nextClassName(),
+        null, "java/lang/Object", new String[]{NAMESPACE + "compiler/Accessor"});
 
     MethodVisitor m = cw.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
 
@@ -1973,7 +1977,7 @@ private Object optimizeFieldMethodProperty(Object ctx, String property, Class<?>
     /**
      * Try to find an instance method from the class target.
      */
-    if ((m = getBestCandidate(argTypes, name, cls, cls.getMethods(), false, classTarget)) != null) {
+    if ((m = getBestCandidate(argTypes, name, cls, false, classTarget)) != null) {
       parameterTypes = m.getParameterTypes();
     }
 
@@ -1989,7 +1993,7 @@ private Object optimizeFieldMethodProperty(Object ctx, String property, Class<?>
     // If we didn't find anything and the declared class is different from the actual one try also with the actual one
     if (m == null && cls != ctx.getClass() && !(ctx instanceof Class)) {
       cls = ctx.getClass();
-      if ((m = getBestCandidate(argTypes, name, cls, cls.getMethods(), false, classTarget)) != null) {
+      if ((m = getBestCandidate(argTypes, name, cls, false, classTarget)) != null) {
         parameterTypes = m.getParameterTypes();
       }
     }
@@ -2328,8 +2332,18 @@ private Object optimizeFieldMethodProperty(Object ctx, String property, Class<?>
     }
   }
 
-  private ContextClassLoader getContextClassLoader() {
-    return pCtx == null ? null : new ContextClassLoader(pCtx.getClassLoader());
+  /**
+   * Returns the parent of the class loader defining the next accessor class, or <tt>null</tt> if the class has to be
+   * defined in a custom {@link MVELClassLoader} registered with {@link #setMVELClassLoader(MVELClassLoader)}.
+   */
+  private ClassLoader getDefiningParent() {
+    if (pCtx != null) {
+      return pCtx.getClassLoader();
+    }
+    if (classLoader instanceof DynamicClassLoader || classLoader instanceof JITClassLoader) {
+      return ((ClassLoader) classLoader).getParent();
+    }
+    return null;
   }
 
   private static class ContextClassLoader extends ClassLoader {
@@ -2344,12 +2358,14 @@ private Object optimizeFieldMethodProperty(Object ctx, String property, Class<?>
 
   private java.lang.Class loadClass(String className, byte[] b) throws Exception {
     /**
-     * This must be synchronized.  Two classes cannot be simultaneously deployed in the JVM.
+     * Every accessor class is defined in a class loader of its own, so it is unloaded as soon as the accessor
+     * (and the compiled expression holding it) becomes unreachable. Class names are unique, so classes can be
+     * defined concurrently.
      */
-    ContextClassLoader contextClassLoader = getContextClassLoader();
-    return contextClassLoader == null ?
+    ClassLoader parent = getDefiningParent();
+    return parent == null ?
             classLoader.defineClassX(className, b, 0, b.length) :
-            contextClassLoader.defineClass(className, b);
+            new ContextClassLoader(parent).defineClass(className, b);
   }
 
   private boolean debug(String instruction) {
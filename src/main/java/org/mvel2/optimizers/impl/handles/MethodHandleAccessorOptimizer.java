@@ -0,0 +1,105 @@
+package org.mvel2.optimizers.impl.handles;
+
+import org.mvel2.DataConversion;
+import org.mvel2.compiler.AccessorNode;
+import org.mvel2.optimizers.impl.refl.ReflectiveAccessorOptimizer;
+import org.mvel2.optimizers.impl.refl.nodes.FieldAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.GetterAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.MethodAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static java.lang.invoke.MethodType.methodType;
+import static org.mvel2.util.ParseTools.boxPrimitive;
+
+/**
+ * Accessor optimizer sitting between the reflective optimizer and the ASM JIT: it resolves property chains exactly
+ * like {@link ReflectiveAccessorOptimizer}, but replaces the getter, field and method nodes with equivalents invoking
+ * {@link MethodHandle}s instead of going through <tt>Method.invoke</tt>. Registered as
+ * {@link org.mvel2.optimizers.OptimizerFactory#HANDLES}.
+ * <p>
+ * Argument coercion is part of the adapted handle, so a call never has to fail with an
+ * <tt>IllegalArgumentException</tt> before it is retried with converted arguments. Members which cannot be
+ * unreflected (inaccessible classes, varargs methods, methods receiving the execution context) keep their
+ * reflective nodes.
+ */
+public class MethodHandleAccessorOptimizer extends ReflectiveAccessorOptimizer {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final MethodHandle CONVERT;
+
+  static {
+    try {
+      CONVERT = LOOKUP.findStatic(DataConversion.class, "convert", methodType(Object.class, Object.class, Class.class));
+    }
+    catch (Exception e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  @Override
+  protected void addAccessorNode(AccessorNode an) {
+    super.addAccessorNode(toHandleNode(an));
+  }
+
+  /**
+   * @return the method handle equivalent of a getter, field or method node, or the node itself if it has none
+   */
+  public static AccessorNode toHandleNode(AccessorNode an) {
+    try {
+      if (an.getClass() == GetterAccessor.class) {
+        return new MethodHandleGetterAccessor((GetterAccessor) an);
+      }
+      else if (an.getClass() == FieldAccessor.class) {
+        return new MethodHandleFieldAccessor((FieldAccessor) an);
+      }
+      else if (an.getClass() == MethodAccessor.class && MethodHandleMethodAccessor.isSupported(((MethodAccessor) an).getMethod())) {
+        return new MethodHandleMethodAccessor((MethodAccessor) an);
+      }
+    }
+    catch (IllegalAccessException e) {
+      // not accessible through a lookup: keep the reflective node
+    }
+    return an;
+  }
+
+  /**
+   * @return a handle for the method taking the (ignored, for static methods) receiver as its first argument
+   */
+  static MethodHandle unreflect(Method method) throws IllegalAccessException {
+    MethodHandle handle = LOOKUP.unreflect(method);
+    if (Modifier.isStatic(method.getModifiers())) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle;
+  }
+
+  static MethodHandles.Lookup lookup() {
+    return LOOKUP;
+  }
+
+  /**
+   * Filters the arguments of the handle starting at <tt>pos</tt> through {@link DataConversion#convert(Object, Class)},
+   * so they can be passed as any value convertible to the parameter type.
+   */
+  static MethodHandle coerceArguments(MethodHandle handle, int pos) {
+    MethodType type = handle.type();
+    MethodHandle[] filters = new MethodHandle[type.parameterCount() - pos];
+    for (int i = 0; i < filters.length; i++) {
+      filters[i] = converter(type.parameterType(pos + i));
+    }
+    return MethodHandles.filterArguments(handle, pos, filters);
+  }
+
+  /**
+   * Primitives are converted to their wrapper type first, which <tt>convert</tt> returns as is when the value
+   * already has it, and are then unboxed by the handle.
+   */
+  static MethodHandle converter(Class<?> type) {
+    return MethodHandles.insertArguments(CONVERT, 1, boxPrimitive(type)).asType(methodType(type, Object.class));
+  }
+}
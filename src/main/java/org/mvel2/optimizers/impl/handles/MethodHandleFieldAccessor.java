@@ -0,0 +1,117 @@
+package org.mvel2.optimizers.impl.handles;
+
+import org.mvel2.compiler.AccessorNode;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.optimizers.impl.refl.nodes.FieldAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link FieldAccessor} reading and writing the field through method handles. Assigned values are coerced to the
+ * field type by the setter handle; final fields and targets of another class are left to the reflective accessor.
+ */
+public class MethodHandleFieldAccessor implements AccessorNode {
+  private final FieldAccessor fallback;
+  private final Field field;
+  private final boolean isStatic;
+  private final MethodHandle getter;
+  private final MethodHandle setter;
+  private AccessorNode nextNode;
+
+  public MethodHandleFieldAccessor(FieldAccessor fallback) throws IllegalAccessException {
+    this.fallback = fallback;
+    this.field = fallback.getField();
+    this.isStatic = Modifier.isStatic(field.getModifiers());
+
+    MethodHandles.Lookup lookup = MethodHandleAccessorOptimizer.lookup();
+    MethodHandle get = lookup.unreflectGetter(field);
+    if (isStatic) {
+      get = MethodHandles.dropArguments(get, 0, Object.class);
+    }
+    this.getter = get.asType(methodType(Object.class, Object.class));
+
+    MethodHandle set = null;
+    if (!Modifier.isFinal(field.getModifiers())) {
+      set = lookup.unreflectSetter(field);
+      if (isStatic) {
+        set = MethodHandles.dropArguments(set, 0, Object.class);
+      }
+      set = MethodHandleAccessorOptimizer.coerceArguments(set, 1).asType(methodType(void.class, Object.class, Object.class));
+    }
+    this.setter = set;
+  }
+
+  public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    if (!isStatic && !field.getDeclaringClass().isInstance(ctx)) {
+      return fallback.getValue(ctx, elCtx, vars);
+    }
+    if (nextNode != null) {
+      return nextNode.getValue(get(ctx), elCtx, vars);
+    }
+    else {
+      return get(ctx);
+    }
+  }
+
+  public Object setValue(Object ctx, Object elCtx, VariableResolverFactory vars, Object value) {
+    if (!isStatic && !field.getDeclaringClass().isInstance(ctx)) {
+      return fallback.setValue(ctx, elCtx, vars, value);
+    }
+    if (nextNode != null) {
+      return nextNode.setValue(get(ctx), elCtx, vars, value);
+    }
+    if (setter == null || (value == null && field.getType().isPrimitive())) {
+      return fallback.setValue(ctx, elCtx, vars, value);
+    }
+    try {
+      setter.invokeExact(ctx, value);
+      return value;
+    }
+    catch (RuntimeException e) {
+      throw e;
+    }
+    catch (Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new RuntimeException("unable to bind property", e);
+    }
+  }
+
+  private Object get(Object ctx) {
+    try {
+      return (Object) getter.invokeExact(ctx);
+    }
+    catch (RuntimeException e) {
+      throw e;
+    }
+    catch (Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new RuntimeException("unable to access field: " + field.getName(), e);
+    }
+  }
+
+  public Field getField() {
+    return field;
+  }
+
+  public AccessorNode setNextNode(AccessorNode nextNode) {
+    fallback.setNextNode(nextNode);
+    return this.nextNode = nextNode;
+  }
+
+  public AccessorNode getNextNode() {
+    return nextNode;
+  }
+
+  public Class getKnownEgressType() {
+    return fallback.getKnownEgressType();
+  }
+}
@@ -0,0 +1,86 @@
+package org.mvel2.optimizers.impl.handles;
+
+import org.mvel2.compiler.AccessorNode;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.optimizers.impl.refl.nodes.GetterAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link GetterAccessor} invoking the getter through a method handle. Targets which are not instances of the
+ * getter's declaring class (e.g. a different implementation showing up at the same position of the chain) are
+ * delegated to the reflective accessor, which resolves the overriding method.
+ */
+public class MethodHandleGetterAccessor implements AccessorNode {
+  private final GetterAccessor fallback;
+  private final Method method;
+  private final boolean isStatic;
+  private final MethodHandle handle;
+  private AccessorNode nextNode;
+
+  public MethodHandleGetterAccessor(GetterAccessor fallback) throws IllegalAccessException {
+    this.fallback = fallback;
+    this.method = fallback.getMethod();
+    this.isStatic = Modifier.isStatic(method.getModifiers());
+    this.handle = MethodHandleAccessorOptimizer.unreflect(method).asType(methodType(Object.class, Object.class));
+  }
+
+  public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    if (!isStatic && !method.getDeclaringClass().isInstance(ctx)) {
+      return fallback.getValue(ctx, elCtx, vars);
+    }
+    if (nextNode != null) {
+      return nextNode.getValue(invoke(ctx), elCtx, vars);
+    }
+    else {
+      return invoke(ctx);
+    }
+  }
+
+  public Object setValue(Object ctx, Object elCtx, VariableResolverFactory vars, Object value) {
+    if (nextNode == null || (!isStatic && !method.getDeclaringClass().isInstance(ctx))) {
+      return fallback.setValue(ctx, elCtx, vars, value);
+    }
+    return nextNode.setValue(invoke(ctx), elCtx, vars, value);
+  }
+
+  private Object invoke(Object ctx) {
+    try {
+      return (Object) handle.invokeExact(ctx);
+    }
+    catch (RuntimeException e) {
+      throw e;
+    }
+    catch (Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new RuntimeException("cannot invoke getter: " + method.getName() + " (see trace)", e);
+    }
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public AccessorNode setNextNode(AccessorNode nextNode) {
+    fallback.setNextNode(nextNode);
+    return this.nextNode = nextNode;
+  }
+
+  public AccessorNode getNextNode() {
+    return nextNode;
+  }
+
+  public Class getKnownEgressType() {
+    return method.getReturnType();
+  }
+
+  public String toString() {
+    return fallback.toString();
+  }
+}
@@ -0,0 +1,119 @@
+package org.mvel2.optimizers.impl.handles;
+
+import org.mvel2.ExecutionContext;
+import org.mvel2.compiler.AccessorNode;
+import org.mvel2.compiler.ExecutableStatement;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.optimizers.impl.refl.nodes.GetterAccessor;
+import org.mvel2.optimizers.impl.refl.nodes.MethodAccessor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * {@link MethodAccessor} invoking the method through a method handle spreading an argument array, with every
+ * argument filtered through {@link org.mvel2.DataConversion#convert(Object, Class)}. Targets which are not instances
+ * of the method's declaring class are delegated to the reflective accessor, which resolves the overriding method.
+ */
+public class MethodHandleMethodAccessor implements AccessorNode {
+  private final MethodAccessor fallback;
+  private final Method method;
+  private final boolean isStatic;
+  private final ExecutableStatement[] parms;
+  private final int length;
+  private final MethodHandle handle;
+  private AccessorNode nextNode;
+
+  public MethodHandleMethodAccessor(MethodAccessor fallback) throws IllegalAccessException {
+    this.fallback = fallback;
+    this.method = fallback.getMethod();
+    this.isStatic = Modifier.isStatic(method.getModifiers());
+    this.parms = fallback.getParms();
+    this.length = method.getParameterTypes().length;
+    this.handle = MethodHandleAccessorOptimizer.coerceArguments(MethodHandleAccessorOptimizer.unreflect(method), 1)
+        .asSpreader(Object[].class, length)
+        .asType(methodType(Object.class, Object.class, Object[].class));
+  }
+
+  /**
+   * Varargs methods and methods receiving the {@link ExecutionContext} need the argument handling of
+   * {@link MethodAccessor} and are not adapted.
+   */
+  static boolean isSupported(Method method) {
+    return !method.isVarArgs() && !Arrays.asList(method.getParameterTypes()).contains(ExecutionContext.class);
+  }
+
+  public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    if (!isStatic && !method.getDeclaringClass().isInstance(ctx)) {
+      return fallback.getValue(ctx, elCtx, vars);
+    }
+    if (nextNode != null) {
+      return nextNode.getValue(invoke(ctx, elCtx, vars), elCtx, vars);
+    }
+    else {
+      return invoke(ctx, elCtx, vars);
+    }
+  }
+
+  public Object setValue(Object ctx, Object elCtx, VariableResolverFactory vars, Object value) {
+    if (!isStatic && !method.getDeclaringClass().isInstance(ctx)) {
+      return fallback.setValue(ctx, elCtx, vars, value);
+    }
+    return nextNode.setValue(invoke(ctx, elCtx, vars), elCtx, vars, value);
+  }
+
+  private Object invoke(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    Object[] args;
+    if (length == 0) {
+      args = GetterAccessor.EMPTY;
+    }
+    else {
+      args = new Object[length];
+      for (int i = 0; i < length; i++) {
+        args[i] = parms[i].getValue(elCtx, vars);
+      }
+    }
+
+    try {
+      return (Object) handle.invokeExact(ctx, args);
+    }
+    catch (RuntimeException e) {
+      throw e;
+    }
+    catch (Error e) {
+      throw e;
+    }
+    catch (Throwable e) {
+      throw new RuntimeException("cannot invoke method: " + method.getName(), e);
+    }
+  }
+
+  public Method getMethod() {
+    return method;
+  }
+
+  public ExecutableStatement[] getParms() {
+    return parms;
+  }
+
+  public AccessorNode setNextNode(AccessorNode nextNode) {
+    fallback.setNextNode(nextNode);
+    return this.nextNode = nextNode;
+  }
+
+  public AccessorNode getNextNode() {
+    return nextNode;
+  }
+
+  public Class getKnownEgressType() {
+    return method.getReturnType();
+  }
+
+  public String toString() {
+    return method.getDeclaringClass().getName() + "." + method.getName();
+  }
+}
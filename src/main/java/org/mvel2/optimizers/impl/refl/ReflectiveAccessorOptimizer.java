@@ -495,7 +495,7 @@ public class ReflectiveAccessorOptimizer extends AbstractOptimizer implements Ac
     }
   }
 
-  private void addAccessorNode(AccessorNode an) {
+  protected void addAccessorNode(AccessorNode an) {
     if (rootNode == null)
       rootNode = currNode = an;
     else {
@@ -1099,7 +1099,7 @@ public class ReflectiveAccessorOptimizer extends AbstractOptimizer implements Ac
     /**
      * Try to find an instance method from the class target.
      */
-    if ((m = getBestCandidate(argTypes, name, cls, cls.getMethods(), false, classTarget)) != null) {
+    if ((m = getBestCandidate(argTypes, name, cls, false, classTarget)) != null) {
       parameterTypes = m.getParameterTypes();
     }
 
@@ -1115,7 +1115,7 @@ public class ReflectiveAccessorOptimizer extends AbstractOptimizer implements Ac
     // If we didn't find anything and the declared class is different from the actual one try also with the actual one
     if (m == null && ctx != null && cls != ctx.getClass() && !(ctx instanceof Class)) {
       cls = ctx.getClass();
-      if ((m = getBestCandidate(argTypes, name, cls, cls.getMethods(), false, classTarget)) != null) {
+      if ((m = getBestCandidate(argTypes, name, cls, false, classTarget)) != null) {
         parameterTypes = m.getParameterTypes();
       }
     }
@@ -34,7 +34,16 @@ public class GetterAccessor implements AccessorNode {
 
   public static final Object[] EMPTY = new Object[0];
 
+  /**
+   * Getters resolved for receivers which are not instances of the declaring class, keyed by the receiver class.
+   * An entry without a method means the property is read through {@link org.mvel2.MVEL#getProperty}.
+   */
+  private final InlineCache cache = new InlineCache();
+
   public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    if (ctx != null && !method.getDeclaringClass().isInstance(ctx)) {
+      return getOverrideValue(ctx, elCtx, vars);
+    }
     try {
       if (nextNode != null) {
         return nextNode.getValue(method.invoke(ctx, EMPTY), elCtx, vars);
@@ -43,24 +52,6 @@ public class GetterAccessor implements AccessorNode {
         return method.invoke(ctx, EMPTY);
       }
     }
-    catch (IllegalArgumentException e) {
-      if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-        Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
-        if (o != null) {
-          return executeOverrideTarget(o, ctx, elCtx, vars);
-        }
-      }
-
-      /**
-       * HACK: Try to access this another way.
-       */
-      if (nextNode != null) {
-        return nextNode.getValue(getProperty(getPropertyFromAccessor(method.getName()), ctx), elCtx, vars);
-      }
-      else {
-        return getProperty(getPropertyFromAccessor(method.getName()), ctx);
-      }
-    }
     catch (NullPointerException e) {
       if (ctx == null) {
         throw new RuntimeException("unable to invoke method: " + method.getDeclaringClass().getName() + "." + method.getName() + ": " +
@@ -77,6 +68,27 @@ public class GetterAccessor implements AccessorNode {
     }
   }
 
+  private Object getOverrideValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    InlineCache.Entry target = cache.find(ctx.getClass(), EMPTY);
+    if (target == null) {
+      Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), true);
+      target = cache.add(new InlineCache.Entry(ctx.getClass(), EMPTY, o, false));
+    }
+    if (target.getMethod() != null) {
+      return executeOverrideTarget(target.getMethod(), ctx, elCtx, vars);
+    }
+
+    /**
+     * HACK: Try to access this another way.
+     */
+    if (nextNode != null) {
+      return nextNode.getValue(getProperty(getPropertyFromAccessor(method.getName()), ctx), elCtx, vars);
+    }
+    else {
+      return getProperty(getPropertyFromAccessor(method.getName()), ctx);
+    }
+  }
+
   public GetterAccessor(Method method) {
     this.method = method;
   }
@@ -85,6 +97,10 @@ public class GetterAccessor implements AccessorNode {
     return method;
   }
 
+  public InlineCache getInlineCache() {
+    return cache;
+  }
+
   public AccessorNode setNextNode(AccessorNode nextNode) {
     return this.nextNode = nextNode;
   }
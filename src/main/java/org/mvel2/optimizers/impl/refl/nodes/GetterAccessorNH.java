@@ -41,7 +41,7 @@ public class GetterAccessorNH implements AccessorNode {
     }
     catch (IllegalArgumentException e) {
       if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-        Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
+        Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), true);
         if (o != null) {
           return executeOverrideTarget(o, ctx, elCtx, vars);
         }
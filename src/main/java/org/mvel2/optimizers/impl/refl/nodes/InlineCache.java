@@ -0,0 +1,150 @@
+package org.mvel2.optimizers.impl.refl.nodes;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded polymorphic inline cache used by the reflective accessor nodes to remember which method was resolved for
+ * a receiver class and the classes of the argument values. Up to {@link #MAX_ENTRIES} combinations are cached; once
+ * more are seen the cache becomes megamorphic and the owning node resolves the target on every invocation.
+ * <p>
+ * Entries are published by replacing the entry array, so lookups never lock. Two threads missing at the same time
+ * may both resolve the target, in which case one of the entries is lost and resolved again later.
+ */
+public final class InlineCache {
+  public static final int MAX_ENTRIES = 4;
+
+  private static final Entry[] EMPTY = new Entry[0];
+
+  private static final LongAdder monomorphic = new LongAdder();
+  private static final LongAdder polymorphic = new LongAdder();
+  private static final LongAdder megamorphic = new LongAdder();
+  private static final LongAdder misses = new LongAdder();
+
+  private volatile Entry[] entries = EMPTY;
+  private volatile boolean isMegamorphic;
+
+  /**
+   * @return the cached entry for the receiver class and argument values, or <tt>null</tt> on a miss
+   */
+  public Entry find(Class<?> receiver, Object[] args) {
+    Entry[] entries = this.entries;
+    for (int i = 0; i < entries.length; i++) {
+      if (entries[i].matches(receiver, args)) {
+        return entries[i];
+      }
+    }
+    misses.increment();
+    return null;
+  }
+
+  /**
+   * Caches the entry unless the cache is megamorphic.
+   *
+   * @return the given entry
+   */
+  public Entry add(Entry entry) {
+    if (isMegamorphic) {
+      return entry;
+    }
+    Entry[] entries = this.entries;
+    if (entries.length == MAX_ENTRIES) {
+      isMegamorphic = true;
+      this.entries = EMPTY;
+      megamorphic.increment();
+      return entry;
+    }
+
+    Entry[] newEntries = new Entry[entries.length + 1];
+    System.arraycopy(entries, 0, newEntries, 0, entries.length);
+    newEntries[entries.length] = entry;
+    this.entries = newEntries;
+
+    if (newEntries.length == 1) {
+      monomorphic.increment();
+    }
+    else if (newEntries.length == 2) {
+      polymorphic.increment();
+    }
+    return entry;
+  }
+
+  public int size() {
+    return entries.length;
+  }
+
+  public boolean isMegamorphic() {
+    return isMegamorphic;
+  }
+
+  /**
+   * @return the number of caches which got their first entry
+   */
+  public static long getMonomorphicCount() {
+    return monomorphic.sum();
+  }
+
+  /**
+   * @return the number of caches which went from one to two entries
+   */
+  public static long getPolymorphicCount() {
+    return polymorphic.sum();
+  }
+
+  /**
+   * @return the number of caches which overflowed and stopped caching
+   */
+  public static long getMegamorphicCount() {
+    return megamorphic.sum();
+  }
+
+  /**
+   * @return the number of lookups which did not find an entry, including every lookup of megamorphic caches
+   */
+  public static long getMissCount() {
+    return misses.sum();
+  }
+
+  public static final class Entry {
+    private final Class<?> receiver;
+    private final Class<?>[] argumentTypes;
+    private final Method method;
+    private final boolean coerce;
+
+    /**
+     * @param receiver - the receiver class, or <tt>null</tt> for a null receiver
+     * @param args     - the argument values, whose classes are part of the key
+     * @param method   - the resolved method, or <tt>null</tt> if none was found
+     * @param coerce   - whether the arguments have to be converted to the parameter types of the method
+     */
+    public Entry(Class<?> receiver, Object[] args, Method method, boolean coerce) {
+      this.receiver = receiver;
+      this.argumentTypes = new Class<?>[args.length];
+      for (int i = 0; i < args.length; i++) {
+        argumentTypes[i] = args[i] == null ? null : args[i].getClass();
+      }
+      this.method = method;
+      this.coerce = coerce;
+    }
+
+    boolean matches(Class<?> receiver, Object[] args) {
+      if (this.receiver != receiver || argumentTypes.length != args.length) {
+        return false;
+      }
+      for (int i = 0; i < args.length; i++) {
+        if (argumentTypes[i] != (args[i] == null ? null : args[i].getClass())) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    public Method getMethod() {
+      return method;
+    }
+
+    public boolean isCoerce() {
+      return coerce;
+    }
+  }
+}
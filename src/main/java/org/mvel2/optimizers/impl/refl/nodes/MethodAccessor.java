@@ -23,9 +23,13 @@ import org.mvel2.ScriptMemoryOverflowException;
 import org.mvel2.compiler.ExecutableStatement;
 import org.mvel2.integration.VariableResolverFactory;
 
+import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 
+import static org.mvel2.DataConversion.convert;
+import static org.mvel2.util.ParseTools.boxPrimitive;
 import static org.mvel2.util.ParseTools.getBestCandidate;
 import static org.mvel2.util.ParseTools.getWidenedTarget;
 
@@ -34,135 +38,123 @@ public class MethodAccessor extends InvokableAccessor {
   private Method method;
   private int executionContextParamIndex = -1;
 
-  public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
-    if (!coercionNeeded) {
-      try {
-        if (nextNode != null) {
-          return nextNode.getValue(method.invoke(ctx, executeAll(elCtx, vars, method)), elCtx, vars);
-        }
-        else {
-          return method.invoke(ctx, executeAll(elCtx, vars, method));
-        }
-      }
-      catch (IllegalArgumentException e) {
-          if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-              Method o = getBestCandidate(parameterTypes, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
-              if (o != null) {
-                  return executeOverrideTarget(getWidenedTarget(o), ctx, elCtx, vars);
-              }
-          }
-
-          coercionNeeded = true;
-          return getValue(ctx, elCtx, vars);
-      } catch (ScriptMemoryOverflowException me){
-          throw me;
-      } catch (Exception e) {
-        if (e.getCause() instanceof ScriptMemoryOverflowException) {
-          throw (ScriptMemoryOverflowException) e.getCause();
-        }
-        throw new RuntimeException("cannot invoke method: " + method.getName(), e);
-      }
+  /**
+   * Resolved targets keyed by the receiver class and the classes of the argument values: the bound method when it
+   * applies (with or without coercion), or the method overriding it for receivers of unrelated classes.
+   */
+  private final InlineCache cache = new InlineCache();
 
+  public Object getValue(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    if (nextNode != null) {
+      return nextNode.getValue(invoke(ctx, elCtx, vars), elCtx, vars);
     }
     else {
-      try {
-        if (nextNode != null) {
-          return nextNode.getValue(method.invoke(ctx, executeAndCoerce(parameterTypes, elCtx, vars, method.isVarArgs())), elCtx, vars);
-        }
-        else {
-          return method.invoke(ctx, executeAndCoerce(parameterTypes, elCtx, vars, method.isVarArgs()));
-        }
-      }
-      catch (IllegalArgumentException e) {
-        Object[] vs = executeAndCoerce(parameterTypes, elCtx, vars, false);
-        Method newMeth;
-        if ((newMeth = getWidenedTarget(getBestCandidate(vs, method.getName(), ctx.getClass(),
-            ctx.getClass().getMethods(), false))) != null) {
-          return executeOverrideTarget(newMeth, ctx, elCtx, vars);
-        }
-        else {
-          throw e;
-        }
-      } catch (ScriptMemoryOverflowException me){
-          throw me;
-      } catch (Exception e) {
-        if (e.getCause() instanceof ScriptMemoryOverflowException) {
-          throw (ScriptMemoryOverflowException) e.getCause();
-        }
-        throw new RuntimeException("cannot invoke method: " + method.getName(), e);
-      }
+      return invoke(ctx, elCtx, vars);
     }
   }
 
-  private Object executeOverrideTarget(Method o, Object ctx, Object elCtx, VariableResolverFactory vars) {
-    // this local field is required to make sure exception block works with the same coercionNeeded value
-    // and it is not changed by another thread while setter is invoked
-    boolean attemptedCoercion = coercionNeeded;
-    if (!coercionNeeded) {
-      try {
-        try {
-          if (nextNode != null) {
-            return nextNode.getValue(o.invoke(ctx, executeAll(elCtx, vars, o)), elCtx, vars);
-          }
-          else {
-            return o.invoke(ctx, executeAll(elCtx, vars, o));
-          }
-        }
-        catch (IllegalArgumentException e) {
-          if (attemptedCoercion) throw e;
-
-          coercionNeeded = true;
-          return executeOverrideTarget(o, ctx, elCtx, vars);
-        }
-      }
-      catch (Exception e2) {
-        throw new RuntimeException("unable to invoke method", e2);
+  private Object invoke(Object ctx, Object elCtx, VariableResolverFactory vars) {
+    try {
+      Object[] args = executeAll(elCtx, vars);
+      Class<?> receiver = ctx == null ? null : ctx.getClass();
+      InlineCache.Entry target = cache.find(receiver, args);
+      if (target == null) {
+        target = cache.add(resolve(receiver, args));
       }
+      return target.getMethod().invoke(ctx, prepare(target.getMethod(), args, elCtx, target.isCoerce()));
     }
-    else {
-      try {
-        if (nextNode != null) {
-          return nextNode.getValue(o.invoke(ctx, executeAndCoerce(o.getParameterTypes(), elCtx, vars, o.isVarArgs())), elCtx, vars);
-        }
-        else {
-          return o.invoke(ctx, executeAndCoerce(o.getParameterTypes(), elCtx, vars, o.isVarArgs()));
-        }
+    catch (IllegalArgumentException e) {
+      throw e;
+    }
+    catch (ScriptMemoryOverflowException me) {
+      throw me;
+    }
+    catch (Exception e) {
+      if (e.getCause() instanceof ScriptMemoryOverflowException) {
+        throw (ScriptMemoryOverflowException) e.getCause();
       }
-      catch (IllegalAccessException e) {
-        throw new RuntimeException("unable to invoke method (expected target: " + method.getDeclaringClass().getName() + "::" + method.getName() + "; " +
-            "actual target: " + ctx.getClass().getName() + "::" + method.getName() + "; coercionNeeded=" + (coercionNeeded ? "yes" : "no") + ")");
+      throw new RuntimeException("cannot invoke method: " + method.getName(), e);
+    }
+  }
+
+  private InlineCache.Entry resolve(Class<?> receiver, Object[] args) {
+    Method target = method;
+    if (receiver != null && !Modifier.isStatic(method.getModifiers()) && !method.getDeclaringClass().isAssignableFrom(receiver)) {
+      Method o = getWidenedTarget(getBestCandidate(args, method.getName(), receiver, false));
+      if (o != null) {
+        target = o;
       }
-      catch (Exception e2) {
-        throw new RuntimeException("unable to invoke method (expected target: " + method.getDeclaringClass().getName() + "::" + method.getName() + "; " +
-            "actual target: " + ctx.getClass().getName() + "::" + method.getName() + "; coercionNeeded=" + (coercionNeeded ? "yes" : "no") + ")");
+    }
+    return new InlineCache.Entry(receiver, args, target, !isApplicable(target, prepare(target, args, null, false)));
+  }
+
+  private static boolean isApplicable(Method m, Object[] values) {
+    Class<?>[] types = m.getParameterTypes();
+    for (int i = 0; i < types.length; i++) {
+      if (values[i] == null ? types[i].isPrimitive() : !boxPrimitive(types[i]).isInstance(values[i])) {
+        return false;
       }
     }
+    return true;
   }
 
-  private Object[] executeAll(Object ctx, VariableResolverFactory vars, Method m) {
-    if (length == 0) return GetterAccessor.EMPTY;
+  private Object[] executeAll(Object ctx, VariableResolverFactory vars) {
+    if (parms == null || parms.length == 0) return GetterAccessor.EMPTY;
 
-    Object[] vals = new Object[length];
-    int paramIndex = 0;
-    for (int i = 0; i < length - (m.isVarArgs() ? 1 : 0); i++) {
-      if (i == this.executionContextParamIndex) {
+    Object[] vals = new Object[parms.length];
+    for (int i = 0; i < vals.length; i++) {
+      vals[i] = parms[i].getValue(ctx, vars);
+    }
+    return vals;
+  }
+
+  /**
+   * Builds the invocation arguments of the method from the evaluated parameters: injects the execution context,
+   * packs varargs and, if requested, converts the values to the parameter types.
+   */
+  private Object[] prepare(Method m, Object[] args, Object ctx, boolean coerce) {
+    Class[] types = m == method ? parameterTypes : m.getParameterTypes();
+    int ctxParamIndex = m == method ? executionContextParamIndex : Arrays.asList(types).indexOf(ExecutionContext.class);
+    boolean varargs = m.isVarArgs();
+    if (!coerce && !varargs && ctxParamIndex < 0) return args;
+    if (types.length == 0) return GetterAccessor.EMPTY;
+
+    Object[] vals = new Object[types.length];
+    int fixed = types.length - (varargs ? 1 : 0);
+    int arg = 0;
+    for (int i = 0; i < fixed; i++) {
+      if (i == ctxParamIndex) {
         vals[i] = ctx instanceof ExecutionContext ? ctx : null;
-      } else {
-        vals[i] = parms[paramIndex++].getValue(ctx, vars);
+      }
+      else {
+        //noinspection unchecked
+        vals[i] = coerce ? convert(args[arg++], types[i]) : args[arg++];
       }
     }
 
-    if (m.isVarArgs()) {
-     if(parms == null){
-        vals[length -1] = new Object[0];
-     }
-     else if (parms.length == length) {
-          Object lastParam = parms[length - 1].getValue(ctx, vars);
-          vals[length - 1] = lastParam == null || lastParam.getClass().isArray() ? lastParam : new Object[] {lastParam};
-      } else {
-        Object[] vararg = new Object[parms.length - length + 1];
-        for (int i = 0; i < vararg.length; i++) vararg[i] = parms[length - 1 + i].getValue(ctx, vars);
-        vals[length - 1] = vararg;
+    if (varargs) {
+      int remaining = args.length - arg;
+      Object last = remaining == 1 ? args[arg] : null;
+      if (coerce) {
+        if (last != null && types[fixed].isInstance(last)) {
+          vals[fixed] = last;
+        }
+        else {
+          Class<?> componentType = types[fixed].getComponentType();
+          Object vararg = Array.newInstance(componentType, remaining);
+          for (int i = 0; i < remaining; i++) {
+            Array.set(vararg, i, convert(args[arg + i], componentType));
+          }
+          vals[fixed] = vararg;
+        }
+      }
+      else if (remaining == 1 && (last == null || last.getClass().isArray())) {
+        vals[fixed] = last;
+      }
+      else {
+        Object[] vararg = new Object[remaining];
+        System.arraycopy(args, arg, vararg, 0, remaining);
+        vals[fixed] = vararg;
       }
     }
 
@@ -196,28 +188,14 @@ public class MethodAccessor extends InvokableAccessor {
   }
 
   public Object setValue(Object ctx, Object elCtx, VariableResolverFactory variableFactory, Object value) {
-    try {
-      return nextNode.setValue(method.invoke(ctx, executeAll(elCtx, variableFactory, method)), elCtx, variableFactory, value);
-    }
-    catch (IllegalArgumentException e) {
-      if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-        Method o = getBestCandidate(parameterTypes, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
-        if (o != null) {
-          return nextNode.setValue(executeOverrideTarget(o, ctx, elCtx, variableFactory), elCtx, variableFactory, value);
-        }
-      }
-
-      coercionNeeded = true;
-      return setValue(ctx, elCtx, variableFactory, value);
-    }
-    catch (Exception e) {
-      throw new RuntimeException("cannot invoke method", e);
-    }
+    return nextNode.setValue(invoke(ctx, elCtx, variableFactory), elCtx, variableFactory, value);
   }
 
   public Class getKnownEgressType() {
     return method.getReturnType();
   }
-}
-
 
+  public InlineCache getInlineCache() {
+    return cache;
+  }
+}
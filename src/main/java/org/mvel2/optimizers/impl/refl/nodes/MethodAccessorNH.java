@@ -55,7 +55,7 @@ public class MethodAccessorNH implements AccessorNode {
       }
       catch (IllegalArgumentException e) {
         if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-          Method o = getBestCandidate(parameterTypes, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
+          Method o = getBestCandidate(parameterTypes, method.getName(), ctx.getClass(), true, false);
           if (o != null) {
             return executeOverrideTarget(o, ctx, elCtx, vars);
           }
@@ -33,7 +33,7 @@ public class SetterAccessor implements AccessorNode {
     }
     catch (IllegalArgumentException e) {
       if (ctx != null && method.getDeclaringClass() != ctx.getClass()) {
-        Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), ctx.getClass().getMethods(), true);
+        Method o = getBestCandidate(EMPTY, method.getName(), ctx.getClass(), true);
         if (o != null) {
           return executeOverrideTarget(o, ctx, value);
         }
@@ -3,6 +3,7 @@ package org.mvel2.util;
 import org.mvel2.ExecutionContext;
 import org.mvel2.execution.ExecutionArrayList;
 import org.mvel2.execution.ExecutionHashMap;
+import org.mvel2.execution.ExecutionObject;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
@@ -19,28 +20,35 @@ public class ArgsRepackUtil {
             return null;
         }
         if (value.getClass().isArray()) {
-            ExecutionArrayList list = new ExecutionArrayList(ctx);
-            int size = Array.getLength(value);
-            for (int i = 0; i < size; i++) {
-                list.add(repack(ctx, Array.get(value, i)));
-            }
-            return list;
+            return ExecutionArrayList.lazyCopyOf(value, ctx);
         } else if (value instanceof Map){
-            Map src = (Map)value;
-            ExecutionHashMap map = new ExecutionHashMap(src.size(), ctx);
-            src.forEach((k,v) -> map.put(k, repack(ctx, v)));
-            return map;
+            return ExecutionHashMap.lazyCopyOf((Map) value, ctx);
         } else if (value instanceof Collection){
-            ExecutionArrayList list = new ExecutionArrayList(ctx);
-            for(Object o : (Collection)value){
-                list.add(repack(ctx, o));
-            }
-            return list;
+            return ExecutionArrayList.lazyCopyOf(value, ctx);
         } else {
             return value;
         }
     }
 
+    /**
+     * Checks whether the value is a nested container whose repack can be deferred until the script accesses it.
+     * Primitive arrays are not deferred: scripts may store them as is, so they cannot mark a pending value and
+     * are repacked eagerly instead (see {@link #isPrimitiveArray(Object)}).
+     */
+    public static boolean isLazyRepackable(Object value) {
+        if (value == null || value instanceof ExecutionObject) {
+            return false;
+        }
+        if (value instanceof Map || value instanceof Collection) {
+            return true;
+        }
+        return value.getClass().isArray() && !value.getClass().getComponentType().isPrimitive();
+    }
+
+    public static boolean isPrimitiveArray(Object value) {
+        return value != null && value.getClass().isArray() && value.getClass().getComponentType().isPrimitive();
+    }
+
     public static Object unpack(Object value) {
         if (value == null) {
             return null;
@@ -52,11 +60,21 @@ public class ArgsRepackUtil {
                 list.add(unpack(Array.get(value, i)));
             }
             return list;
+        } else if (value instanceof ExecutionHashMap){
+            ExecutionHashMap src = (ExecutionHashMap)value;
+            Map map = new LinkedHashMap(src.size());
+            src.forEachRaw((k,v) -> map.put(k, unpack(v)));
+            return map;
         } else if (value instanceof Map){
             Map src = (Map)value;
             Map map = new LinkedHashMap(src.size());
             src.forEach((k,v) -> map.put(k, unpack(v)));
             return map;
+        } else if (value instanceof ExecutionArrayList){
+            ExecutionArrayList src = (ExecutionArrayList)value;
+            List list = new ArrayList(src.size());
+            src.forEachRaw(o -> list.add(unpack(o)));
+            return list;
         } else if (value instanceof Collection){
             List list = new ArrayList();
             for(Object o : (Collection)value){
@@ -67,4 +85,20 @@ public class ArgsRepackUtil {
             return value;
         }
     }
+
+    /**
+     * Hands the script result over to the caller without copying execution collections: they are detached from
+     * the execution context in place. Other values are unpacked the same way as {@link #unpack(Object)}.
+     */
+    public static Object detach(Object value) {
+        if (value instanceof ExecutionHashMap) {
+            ((ExecutionHashMap) value).detach();
+            return value;
+        } else if (value instanceof ExecutionArrayList) {
+            ((ExecutionArrayList) value).detach();
+            return value;
+        } else {
+            return unpack(value);
+        }
+    }
 }
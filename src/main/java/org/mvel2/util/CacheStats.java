@@ -0,0 +1,47 @@
+package org.mvel2.util;
+
+/**
+ * Snapshot of the hit and miss counts of one of the reflection caches.
+ *
+ * @see org.mvel2.PropertyAccessor#getCacheStats()
+ * @see ParseTools#getCacheStats()
+ */
+public final class CacheStats {
+  private final String name;
+  private final long hitCount;
+  private final long missCount;
+
+  public CacheStats(String name, long hitCount, long missCount) {
+    this.name = name;
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getRequestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * @return the ratio of lookups which found a cached value, or <tt>1.0</tt> if there were no lookups
+   */
+  public double getHitRate() {
+    long requests = getRequestCount();
+    return requests == 0 ? 1.0 : (double) hitCount / requests;
+  }
+
+  public String toString() {
+    return name + ": hits=" + hitCount + ", misses=" + missCount + ", hit rate=" + String.format("%.2f%%", getHitRate() * 100);
+  }
+}
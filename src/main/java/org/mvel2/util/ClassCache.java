@@ -0,0 +1,81 @@
+package org.mvel2.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Lock-free cache of reflection data resolved per class, such as the member implementing a property.
+ * <p>
+ * Every class gets its own map through a {@link ClassValue}: keys never collide between classes, and the entries
+ * of a class are reclaimed together with the class when its class loader is unloaded. Values are held strongly by
+ * the class they were resolved for. <tt>null</tt> values are never cached.
+ *
+ * @param <K> - key of an entry within a class
+ * @param <V> - cached value
+ */
+public final class ClassCache<K, V> {
+  private final String name;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  private volatile ClassValue<ConcurrentHashMap<K, V>> maps = newMaps();
+
+  public ClassCache(String name) {
+    this.name = name;
+  }
+
+  private static <K, V> ClassValue<ConcurrentHashMap<K, V>> newMaps() {
+    return new ClassValue<ConcurrentHashMap<K, V>>() {
+      protected ConcurrentHashMap<K, V> computeValue(Class<?> type) {
+        return new ConcurrentHashMap<K, V>();
+      }
+    };
+  }
+
+  public V get(Class<?> cls, K key) {
+    V value = maps.get(cls).get(key);
+    if (value != null) {
+      hits.increment();
+    }
+    else {
+      misses.increment();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the cached value, resolving and caching it on a miss.
+   */
+  public V get(Class<?> cls, K key, Function<? super K, ? extends V> resolver) {
+    ConcurrentHashMap<K, V> map = maps.get(cls);
+    V value = map.get(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    if ((value = resolver.apply(key)) != null) {
+      map.put(key, value);
+    }
+    return value;
+  }
+
+  public void put(Class<?> cls, K key, V value) {
+    if (value != null) {
+      maps.get(cls).put(key, value);
+    }
+  }
+
+  /**
+   * Drops the entries of all classes. The maps of the previous generation are released with the
+   * {@link ClassValue} holding them.
+   */
+  public void clear() {
+    maps = newMaps();
+  }
+
+  public CacheStats getStats() {
+    return new CacheStats(name, hits.sum(), misses.sum());
+  }
+}
@@ -39,6 +39,7 @@ import org.mvel2.ast.IntMult;
 import org.mvel2.ast.IntOptimized;
 import org.mvel2.ast.IntSub;
 import org.mvel2.ast.LiteralNode;
+import org.mvel2.ast.NumericOperation;
 import org.mvel2.ast.Or;
 import org.mvel2.ast.RegExMatchNode;
 import org.mvel2.ast.Soundslike;
@@ -196,10 +197,10 @@ public class CompilerTools {
 
 
           if (tkOp2 != null && tkOp2 != tkOp) {
-            optimizeOperator(tkOp2.getOperator(), bo, tkOp2, astLinkedList, optimizedAst, pCtx);
+            optimizeOperator(tkOp2.getOperator(), specialize(bo), tkOp2, astLinkedList, optimizedAst, pCtx);
           }
           else {
-            optimizedAst.addTokenNode(bo);
+            optimizedAst.addTokenNode(specialize(bo));
           }
         }
         else if (tkOp.isOperator()) {
@@ -310,6 +311,22 @@ public class CompilerTools {
     }
   }
 
+  /**
+   * Replaces the generic arithmetic and comparison operations of the tree with {@link NumericOperation}s where their
+   * operands may be numeric, so that nested operations are computed without boxing intermediate results.
+   */
+  private static ASTNode specialize(ASTNode node) {
+    if (node instanceof BinaryOperation) {
+      BinaryOperation bo = (BinaryOperation) node;
+      bo.setLeft(specialize(bo.getLeft()));
+      bo.setRight(specialize(bo.getRight()));
+      if (NumericOperation.isApplicable(bo)) {
+        return new NumericOperation(bo);
+      }
+    }
+    return node;
+  }
+
   private static boolean isReductionOpportunity(ASTNode oper, ASTNode node) {
     ASTNode n = node;
     return (n != null && n.isLiteral()
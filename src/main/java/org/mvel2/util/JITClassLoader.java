@@ -19,6 +19,10 @@
 package org.mvel2.util;
 
 public class JITClassLoader extends ClassLoader implements MVELClassLoader {
+  static {
+    registerAsParallelCapable();
+  }
+
   public JITClassLoader(ClassLoader classLoader) {
     super(classLoader);
   }
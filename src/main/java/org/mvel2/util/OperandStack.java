@@ -0,0 +1,156 @@
+package org.mvel2.util;
+
+import org.mvel2.CompileException;
+import org.mvel2.ScriptRuntimeException;
+
+import java.util.Arrays;
+
+import static org.mvel2.math.MathProcessor.doOperations;
+
+/**
+ * Array-backed operand stack of the compiled-expression interpreter ({@link org.mvel2.MVELRuntime}).
+ * <p>
+ * Every value is stored together with the operator which combines it with the value below it, in a parallel
+ * <tt>int</tt> array, so neither stack nodes nor boxed operators are allocated. A single stack is reused by all the
+ * executions of a thread: when the interpreter re-enters for a nested block or a function call it opens a new
+ * frame on top of the values of the outer execution with {@link #enter()}, and closes it with {@link #exit(int)}.
+ * All the other operations only see the values of the current frame.
+ */
+public final class OperandStack {
+  /**
+   * Operator slot of a value which was pushed without an operator.
+   */
+  public static final int NO_OPERATOR = -1;
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private static final ThreadLocal<OperandStack> STACKS = new ThreadLocal<OperandStack>() {
+    protected OperandStack initialValue() {
+      return new OperandStack();
+    }
+  };
+
+  private Object[] values = new Object[INITIAL_CAPACITY];
+  private int[] operators = new int[INITIAL_CAPACITY];
+  private int size;
+  private int base;
+
+  /**
+   * @return the operand stack of the current thread
+   */
+  public static OperandStack get() {
+    return STACKS.get();
+  }
+
+  /**
+   * Opens a new, empty frame on top of the current one.
+   *
+   * @return the base of the enclosing frame, to be passed to {@link #exit(int)}
+   */
+  public int enter() {
+    int enclosing = base;
+    base = size;
+    return enclosing;
+  }
+
+  /**
+   * Discards the values of the current frame and restores the enclosing one.
+   *
+   * @param enclosing - the value returned by the matching {@link #enter()}
+   */
+  public void exit(int enclosing) {
+    clear();
+    base = enclosing;
+  }
+
+  public boolean isEmpty() {
+    return size == base;
+  }
+
+  public int size() {
+    return size - base;
+  }
+
+  public void push(Object value) {
+    push(value, NO_OPERATOR);
+  }
+
+  /**
+   * Pushes a value which is to be combined with the value below it by the given operator.
+   */
+  public void push(Object value, int operator) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+      operators = Arrays.copyOf(operators, size * 2);
+    }
+    values[size] = value;
+    operators[size++] = operator;
+  }
+
+  public Object peek() {
+    return size == base ? null : values[size - 1];
+  }
+
+  /**
+   * @return the operator of the top value, or {@link #NO_OPERATOR}
+   */
+  public int peekOperator() {
+    return size == base ? NO_OPERATOR : operators[size - 1];
+  }
+
+  public Object pop() {
+    if (size == base) {
+      return null;
+    }
+    Object value = values[--size];
+    values[size] = null;
+    return value;
+  }
+
+  public Boolean popBoolean() {
+    if (size == base) {
+      return null;
+    }
+    Object value = pop();
+    if (value instanceof Boolean) return (Boolean) value;
+    throw new ScriptRuntimeException("expected Boolean; but found: " + (value == null ? "null" : value.getClass().getName()));
+  }
+
+  /**
+   * @return whether the top value can be combined with the value below it
+   */
+  public boolean isReduceable() {
+    return size - base > 1;
+  }
+
+  /**
+   * Replaces the two top values with the result of applying the operator of the top value to them.
+   */
+  public void op() {
+    int operator = operators[size - 1];
+    if (operator == NO_OPERATOR) {
+      throw new CompileException("syntax error or incomptable types", new char[0], 0);
+    }
+    Object right = values[--size];
+    values[size] = null;
+    values[size - 1] = doOperations(values[size - 1], operator, right);
+  }
+
+  /**
+   * Discards the values of the current frame.
+   */
+  public void clear() {
+    Arrays.fill(values, base, size, null);
+    size = base;
+  }
+
+  public String toString() {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = base; i < size; i++) {
+      if (i != base) sb.append(", ");
+      sb.append(values[i]);
+      if (operators[i] != NO_OPERATOR) sb.append(" <").append(operators[i]).append('>');
+    }
+    return sb.append(']').toString();
+  }
+}
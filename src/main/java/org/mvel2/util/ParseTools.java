@@ -25,6 +25,7 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Executable;
@@ -43,7 +44,9 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.mvel2.CompileException;
 import org.mvel2.DataTypes;
@@ -312,6 +315,87 @@ public class ParseTools {
     return bestCandidate;
   }
 
+  /**
+   * Upper bound of the number of memoized overload resolutions. The memo is cleared when it is exceeded.
+   */
+  private static final int MAX_RESOLVED_CANDIDATES = 8192;
+
+  private static final ClassCache<CandidateKey, ResolvedMethod> CANDIDATE_CACHE
+      = new ClassCache<CandidateKey, ResolvedMethod>("method candidate");
+  private static final AtomicInteger CANDIDATE_CACHE_SIZE = new AtomicInteger();
+
+  /**
+   * Memoized equivalent of <tt>getBestCandidate(arguments, method, decl, decl.getMethods(), requireExact)</tt>.
+   */
+  public static Method getBestCandidate(Object[] arguments, String method, Class decl, boolean requireExact) {
+    Class[] targetParms = new Class[arguments.length];
+    for (int i = 0; i != arguments.length; i++) {
+      targetParms[i] = arguments[i] != null ? arguments[i].getClass() : null;
+    }
+    return resolveBestCandidate(targetParms, method, decl, requireExact, false).getMethod();
+  }
+
+  /**
+   * Memoized equivalent of <tt>getBestCandidate(arguments, method, decl, decl.getMethods(), requireExact, classTarget)</tt>.
+   */
+  public static Method getBestCandidate(Class[] arguments, String method, Class decl, boolean requireExact, boolean classTarget) {
+    return resolveBestCandidate(arguments, method, decl, requireExact, classTarget).getMethod();
+  }
+
+  /**
+   * Resolves the best candidate among the public methods of <tt>decl</tt>, memoizing the result together with the
+   * coercion plan of the arguments, keyed by the class, the method name and the argument classes.
+   */
+  public static ResolvedMethod resolveBestCandidate(Class[] arguments, String method, Class decl, boolean requireExact,
+                                                    boolean classTarget) {
+    CandidateKey key = new CandidateKey(method, arguments, requireExact, classTarget);
+    ResolvedMethod resolved = CANDIDATE_CACHE.get(decl, key);
+    if (resolved == null) {
+      resolved = new ResolvedMethod(getBestCandidate(arguments, method, decl, decl.getMethods(), requireExact, classTarget), arguments);
+      if (CANDIDATE_CACHE_SIZE.incrementAndGet() > MAX_RESOLVED_CANDIDATES) {
+        clearCandidateCache();
+      }
+      CANDIDATE_CACHE.put(decl, key, resolved);
+    }
+    return resolved;
+  }
+
+  /**
+   * Drops the memoized overload resolutions, e.g. after conversion handlers changed which arguments are convertible.
+   */
+  public static void clearCandidateCache() {
+    CANDIDATE_CACHE_SIZE.set(0);
+    CANDIDATE_CACHE.clear();
+  }
+
+  private static final class CandidateKey {
+    private final String name;
+    private final Class[] arguments;
+    private final boolean requireExact;
+    private final boolean classTarget;
+    private final int hash;
+
+    CandidateKey(String name, Class[] arguments, boolean requireExact, boolean classTarget) {
+      this.name = name;
+      this.arguments = arguments.clone();
+      this.requireExact = requireExact;
+      this.classTarget = classTarget;
+      this.hash = 31 * (31 * name.hashCode() + Arrays.hashCode(arguments)) + (requireExact ? 2 : 0) + (classTarget ? 1 : 0);
+    }
+
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof CandidateKey)) return false;
+      CandidateKey other = (CandidateKey) o;
+      return hash == other.hash && requireExact == other.requireExact && classTarget == other.classTarget
+          && name.equals(other.name) && Arrays.equals(arguments, other.arguments);
+    }
+
+    public int hashCode() {
+      return hash;
+    }
+  }
+
   public static Class<?>[] removeExecutionContextParam(Class<?>[] paramsTypes) {
     if (paramsTypes != null) {
       List<Class<?>> paramTypesList = Arrays.asList(paramsTypes);
@@ -504,19 +588,11 @@ public class ParseTools {
     return best;
   }
 
-  private static final Map<Constructor, WeakReference<Class[]>> CONSTRUCTOR_PARMS_CACHE
-      = Collections.synchronizedMap( new WeakHashMap<Constructor, WeakReference<Class[]>>(10) );
+  private static final ClassCache<Constructor, Class[]> CONSTRUCTOR_PARMS_CACHE
+      = new ClassCache<Constructor, Class[]>("constructor parameter types");
 
   private static Class[] getConstructors(Constructor cns) {
-    WeakReference<Class[]> ref = CONSTRUCTOR_PARMS_CACHE.get(cns);
-    Class[] parms;
-    if (ref != null && (parms = ref.get()) != null) {
-      return parms;
-    }
-    else {
-      CONSTRUCTOR_PARMS_CACHE.put(cns, new WeakReference<Class[]>(parms = cns.getParameterTypes()));
-      return parms;
-    }
+    return CONSTRUCTOR_PARMS_CACHE.get(cns.getDeclaringClass(), cns, Constructor::getParameterTypes);
   }
 
   public static Constructor getBestConstructorCandidate(Object[] args, Class cls, boolean requireExact) {
@@ -566,28 +642,42 @@ public class ParseTools {
   }
 
 
-  private static final Map<ClassLoader, Map<String, WeakReference<Class>>> CLASS_RESOLVER_CACHE
-      = Collections.synchronizedMap( new WeakHashMap<ClassLoader, Map<String, WeakReference<Class>>>(1, 1.0f) );
-  private static final Map<Class, WeakReference<Constructor[]>> CLASS_CONSTRUCTOR_CACHE
-      = Collections.synchronizedMap( new WeakHashMap<Class, WeakReference<Constructor[]>>(10) );
+  /**
+   * Classes resolved by name, per class loader. Classes are weakly referenced, as they would otherwise keep their
+   * class loaders and the cache entries of those loaders alive.
+   */
+  private static final ConcurrentHashMap<ClassLoaderKey, ConcurrentHashMap<String, WeakReference<Class>>> CLASS_RESOLVER_CACHE
+      = new ConcurrentHashMap<ClassLoaderKey, ConcurrentHashMap<String, WeakReference<Class>>>();
+  private static final ReferenceQueue<ClassLoader> CLASS_RESOLVER_QUEUE = new ReferenceQueue<ClassLoader>();
+  private static final LongAdder CLASS_RESOLVER_HITS = new LongAdder();
+  private static final LongAdder CLASS_RESOLVER_MISSES = new LongAdder();
+
+  private static final ClassCache<Class, Constructor[]> CLASS_CONSTRUCTOR_CACHE
+      = new ClassCache<Class, Constructor[]>("constructors");
 
 
   public static Class createClass(String className, ParserContext pCtx) throws ClassNotFoundException {
     ClassLoader classLoader = pCtx != null ? pCtx.getClassLoader() : currentThread().getContextClassLoader();
 
-    Map<String, WeakReference<Class>> cache = CLASS_RESOLVER_CACHE.get(classLoader);
+    Map<String, WeakReference<Class>> cache = CLASS_RESOLVER_CACHE.get(new ClassLoaderKey(classLoader, null));
 
     if (cache == null) {
-      CLASS_RESOLVER_CACHE.put(classLoader, cache = Collections.synchronizedMap( new WeakHashMap<String, WeakReference<Class>>(10) ) );
+      for (Object key; (key = CLASS_RESOLVER_QUEUE.poll()) != null; ) {
+        CLASS_RESOLVER_CACHE.remove(key);
+      }
+      cache = CLASS_RESOLVER_CACHE.computeIfAbsent(new ClassLoaderKey(classLoader, CLASS_RESOLVER_QUEUE),
+          key -> new ConcurrentHashMap<String, WeakReference<Class>>());
     }
 
     WeakReference<Class> ref;
     Class cls;
 
     if ((ref = cache.get(className)) != null && (cls = ref.get()) != null) {
+      CLASS_RESOLVER_HITS.increment();
       return cls;
     }
     else {
+      CLASS_RESOLVER_MISSES.increment();
       try {
         cls = Class.forName(className, true, classLoader);
       }
@@ -600,21 +690,42 @@ public class ParseTools {
     }
   }
 
+  private static final class ClassLoaderKey extends WeakReference<ClassLoader> {
+    private final boolean bootstrap;
+    private final int hash;
 
-  public static Constructor[] getConstructors(Class cls) {
-    WeakReference<Constructor[]> ref = CLASS_CONSTRUCTOR_CACHE.get(cls);
-    Constructor[] cns;
+    ClassLoaderKey(ClassLoader classLoader, ReferenceQueue<ClassLoader> queue) {
+      super(classLoader, queue);
+      this.bootstrap = classLoader == null;
+      this.hash = System.identityHashCode(classLoader);
+    }
 
-    if (ref != null && (cns = ref.get()) != null) {
-      return cns;
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ClassLoaderKey)) return false;
+      ClassLoaderKey other = (ClassLoaderKey) o;
+      return bootstrap ? other.bootstrap : get() != null && get() == other.get();
     }
-    else {
-      CLASS_CONSTRUCTOR_CACHE.put(cls, new WeakReference<Constructor[]>(cns = cls.getConstructors()));
-      return cns;
+
+    public int hashCode() {
+      return hash;
     }
   }
 
 
+  public static Constructor[] getConstructors(Class cls) {
+    return CLASS_CONSTRUCTOR_CACHE.get(cls, cls, Class::getConstructors);
+  }
+
+  /**
+   * @return the hit and miss counts of the class, constructor, constructor parameter type and method candidate caches
+   */
+  public static List<CacheStats> getCacheStats() {
+    return Arrays.asList(new CacheStats("class", CLASS_RESOLVER_HITS.sum(), CLASS_RESOLVER_MISSES.sum()),
+        CLASS_CONSTRUCTOR_CACHE.getStats(), CONSTRUCTOR_PARMS_CACHE.getStats(), CANDIDATE_CACHE.getStats());
+  }
+
+
   public static String[] captureContructorAndResidual(char[] cs, int start, int offset) {
     int depth = 0;
     int end = start + offset;
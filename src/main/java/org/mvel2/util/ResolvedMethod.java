@@ -0,0 +1,103 @@
+package org.mvel2.util;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import static org.mvel2.DataConversion.convert;
+import static org.mvel2.util.ParseTools.boxPrimitive;
+import static org.mvel2.util.ParseTools.removeExecutionContextParam;
+import static org.mvel2.util.Varargs.paramTypeVarArgsSafe;
+
+/**
+ * Result of an overload resolution for a vector of argument classes: the selected method, if any, and the
+ * coercion plan of the arguments, i.e. which of them have to be converted to the type of their parameter.
+ *
+ * @see ParseTools#resolveBestCandidate(Class[], String, Class, boolean, boolean)
+ */
+public final class ResolvedMethod {
+  private final Method method;
+  private final Class[] parameterTypes;
+  private final Class[] argumentTypes;
+  private final Class[] coercions;
+
+  /**
+   * @param method    - the selected method, or <tt>null</tt> if none applies
+   * @param arguments - the argument classes the method was selected for; <tt>null</tt> elements stand for
+   *                  <tt>null</tt> values
+   */
+  public ResolvedMethod(Method method, Class[] arguments) {
+    this.method = method;
+    this.argumentTypes = arguments.clone();
+    this.parameterTypes = method == null ? null : method.getParameterTypes();
+
+    Class[] coercions = null;
+    if (method != null) {
+      Class<?>[] types = removeExecutionContextParam(method.getParameterTypes());
+      int count = method.isVarArgs() ? arguments.length : Math.min(arguments.length, types.length);
+      for (int i = 0; i < count; i++) {
+        Class<?> type = paramTypeVarArgsSafe(types, i, method.isVarArgs());
+        if (arguments[i] != null && !boxPrimitive(type).isAssignableFrom(boxPrimitive(arguments[i]))) {
+          if (coercions == null) {
+            coercions = new Class[arguments.length];
+          }
+          coercions[i] = type;
+        }
+      }
+    }
+    this.coercions = coercions;
+  }
+
+  /**
+   * @return the selected method, or <tt>null</tt> if no method applies to the arguments
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * @return the declared parameter types of the method
+   */
+  public Class[] getParameterTypes() {
+    return parameterTypes;
+  }
+
+  public boolean isCoercionNeeded() {
+    return coercions != null;
+  }
+
+  /**
+   * @return whether the values have the argument classes this resolution was made for
+   */
+  public boolean matches(Object[] args) {
+    if (args.length != argumentTypes.length) {
+      return false;
+    }
+    for (int i = 0; i < args.length; i++) {
+      if (argumentTypes[i] != (args[i] == null ? null : args[i].getClass())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Converts, in place, the arguments which need it according to the coercion plan. The values are expected to
+   * {@link #matches(Object[]) match} the argument classes of this resolution.
+   *
+   * @return the given arguments
+   */
+  public Object[] coerce(Object[] args) {
+    if (coercions != null) {
+      for (int i = 0; i < coercions.length; i++) {
+        if (coercions[i] != null) {
+          args[i] = convert(args[i], coercions[i]);
+        }
+      }
+    }
+    return args;
+  }
+
+  public String toString() {
+    return (method == null ? "<none>" : method.toString()) + " for " + Arrays.toString(argumentTypes);
+  }
+}
@@ -0,0 +1,48 @@
+package org.mvel2.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+public class StringSizeUtil {
+
+    private static final byte LATIN1 = 0;
+
+    private static final MethodHandle CODER_GETTER = coderGetter();
+
+    public static long exactSize(String value) {
+        return value.getBytes().length;
+    }
+
+    /**
+     * Estimates the size of a string from its length and coder (1 byte per char for Latin-1, 2 for UTF-16)
+     * without encoding or copying it. The coder is read directly when <tt>java.lang</tt> is open to this
+     * module, otherwise it is derived by scanning the characters.
+     */
+    public static long estimateSize(String value) {
+        return isLatin1(value) ? value.length() : (long) value.length() << 1;
+    }
+
+    private static boolean isLatin1(String value) {
+        if (CODER_GETTER != null) {
+            try {
+                return (byte) CODER_GETTER.invokeExact(value) == LATIN1;
+            } catch (Throwable e) {
+                // fall through to scanning
+            }
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static MethodHandle coderGetter() {
+        try {
+            return MethodHandles.privateLookupIn(String.class, MethodHandles.lookup()).findGetter(String.class, "coder", byte.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
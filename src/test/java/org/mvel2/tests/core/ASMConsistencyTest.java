@@ -1,7 +1,9 @@
 package org.mvel2.tests.core;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -9,7 +11,20 @@ import java.util.Map;
 import java.util.Vector;
 
 import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
+import org.mvel2.ParserContext;
+import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.optimizers.dynamic.AccessorProfile;
+import org.mvel2.optimizers.dynamic.BackgroundCompiler;
+import org.mvel2.optimizers.dynamic.CostTieringPolicy;
 import org.mvel2.optimizers.dynamic.DynamicOptimizer;
+import org.mvel2.optimizers.dynamic.TieringPolicy;
+import org.mvel2.optimizers.impl.handles.MethodHandleFieldAccessor;
+import org.mvel2.optimizers.impl.handles.MethodHandleGetterAccessor;
+import org.mvel2.optimizers.impl.handles.MethodHandleMethodAccessor;
+import org.mvel2.tests.core.res.Base;
+import org.mvel2.compiler.Accessor;
+import org.mvel2.compiler.AccessorNode;
 import org.mvel2.util.MethodStub;
 
 public class ASMConsistencyTest extends AbstractTest {
@@ -82,4 +97,208 @@ public class ASMConsistencyTest extends AbstractTest {
     DynamicOptimizer.tenuringThreshold = oldThreashold;
     DynamicOptimizer.timeSpan = oldTimeSpan;
   }
+
+  public void testPromotionDoesNotOverloadDynamicClassLoader() {
+    int oldMaximumTenure = DynamicOptimizer.maximumTenure;
+    DynamicOptimizer.maximumTenure = 5;
+    int recycled = DynamicOptimizer.totalRecycled;
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.DYNAMIC);
+    try {
+      List<Serializable> compiled = new ArrayList<Serializable>();
+      for (int i = 0; i < 20; i++) {
+        compiled.add(MVEL.compileExpression("digest.length() + " + i));
+      }
+      for (int i = 0; i < compiled.size(); i++) {
+        for (int j = 0; j <= DynamicOptimizer.tenuringThreshold + 1; j++) {
+          assertEquals(3 + i, MVEL.executeExpression(compiled.get(i), Collections.singletonMap("digest", "001")));
+        }
+      }
+      // every accessor class lives in a class loader of its own, so the shared loader never has to be recycled
+      assertFalse(DynamicOptimizer.isOverloaded());
+      assertEquals(recycled, DynamicOptimizer.totalRecycled);
+    }
+    finally {
+      DynamicOptimizer.maximumTenure = oldMaximumTenure;
+      OptimizerFactory.setDefaultOptimizer(OptimizerFactory.DYNAMIC);
+    }
+  }
+
+  public void testAccessorClassUnloadedWithAccessor() throws InterruptedException {
+    Base base = new Base();
+    ParserContext context = new ParserContext();
+    Accessor accessor = OptimizerFactory.getAccessorCompiler("ASM")
+        .optimizeAccessor(context, "foo.bar.name".toCharArray(), 0, 12, base, base, null, false, null);
+    assertEquals("dog", accessor.getValue(base, base, null));
+    ClassLoader loader = accessor.getClass().getClassLoader();
+    assertNotSame(context.getClassLoader(), loader);
+    assertSame(context.getClassLoader(), loader.getParent());
+
+    WeakReference<ClassLoader> loaderRef = new WeakReference<ClassLoader>(loader);
+    accessor = null;
+    loader = null;
+    for (int i = 0; i < 50 && loaderRef.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(loaderRef.get());
+  }
+
+  public void testBackgroundPromotion() throws InterruptedException {
+    BackgroundCompiler compiler = new BackgroundCompiler();
+    DynamicOptimizer.setBackgroundCompiler(compiler);
+    try {
+      Base base = new Base();
+      Serializable property = MVEL.compileExpression("foo.bar.name");
+      Serializable invocation = MVEL.compileExpression("foo.bar.name.length()");
+      for (int i = 0; i <= DynamicOptimizer.tenuringThreshold + 1; i++) {
+        assertEquals("dog", MVEL.executeExpression(property, base));
+        assertEquals(3, MVEL.executeExpression(invocation, base));
+      }
+      // the invocation is linked, not evaluated, so both chains are promoted in the background
+      assertEquals(2, compiler.getSubmittedCount());
+      for (int i = 0; i < 500 && compiler.getCompletedCount() < 2; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(2, compiler.getCompletedCount());
+      assertEquals(0, compiler.getQueueDepth());
+      assertTrue(compiler.getMaxCompileNanos() > 0);
+      assertEquals("dog", MVEL.executeExpression(property, base));
+      assertEquals(3, MVEL.executeExpression(invocation, base));
+    }
+    finally {
+      DynamicOptimizer.setBackgroundCompiler(null);
+      compiler.shutdown();
+    }
+  }
+
+  public static class Reading {
+    public int reads;
+
+    public String getUnit() {
+      reads++;
+      return "kWh";
+    }
+  }
+
+  public void testBackgroundPromotionDoesNotEvaluateChain() throws InterruptedException {
+    BackgroundCompiler compiler = new BackgroundCompiler();
+    DynamicOptimizer.setBackgroundCompiler(compiler);
+    try {
+      Reading reading = new Reading();
+      Map<String, Object> vars = new HashMap<String, Object>();
+      vars.put("reading", reading);
+      Serializable compiled = MVEL.compileExpression("reading.unit");
+      int executions = 0;
+      for (int i = 0; i <= DynamicOptimizer.tenuringThreshold + 1; i++, executions++) {
+        assertEquals("kWh", MVEL.executeExpression(compiled, vars));
+      }
+      assertEquals(1, compiler.getSubmittedCount());
+      // the variables of the triggering request may be released or reused once it returns
+      vars.clear();
+      for (int i = 0; i < 500 && compiler.getCompletedCount() == 0; i++) {
+        Thread.sleep(10);
+      }
+      assertEquals(1, compiler.getCompletedCount());
+      assertEquals(0, compiler.getFailedCount());
+      // the compiler thread linked the chain without reading the property
+      assertEquals(executions, reading.reads);
+
+      vars.put("reading", reading);
+      assertEquals("kWh", MVEL.executeExpression(compiled, vars));
+      assertEquals(executions + 1, reading.reads);
+    }
+    finally {
+      DynamicOptimizer.setBackgroundCompiler(null);
+      compiler.shutdown();
+    }
+  }
+
+  public void testPerConfigurationTieringPolicy() {
+    final List<Long> consulted = new ArrayList<Long>();
+    final TieringPolicy costPolicy = new CostTieringPolicy(1, 60000000000L, 4);
+    ParserConfiguration parserConfiguration = new ParserConfiguration();
+    parserConfiguration.setTieringPolicy(new TieringPolicy() {
+      public boolean shouldPromote(AccessorProfile profile) {
+        consulted.add(profile.getInvocations());
+        return costPolicy.shouldPromote(profile);
+      }
+    });
+    Serializable compiled = MVEL.compileExpression("foo.bar.name", new ParserContext(parserConfiguration));
+    Base base = new Base();
+    for (int i = 0; i < 20; i++) {
+      assertEquals("dog", MVEL.executeExpression(compiled, base));
+    }
+    // the first invocation is timed, and the accumulated cost is checked once per sample interval
+    assertEquals(Arrays.asList(1L, 2L, 3L, 4L), consulted);
+  }
+
+  public void testSteadyLowRateAccessorPromotedByCostPolicy() {
+    // one invocation per simulated second, far below the burst rate of 50 invocations within 100ms
+    final long[] clock = {System.nanoTime()};
+    final TieringPolicy costPolicy = new CostTieringPolicy(5000, CostTieringPolicy.DEFAULT_HALF_LIFE_NANOS, 1) {
+      protected long nanoTime() {
+        return clock[0] += 1000000000L;
+      }
+    };
+    final List<Long> promoted = new ArrayList<Long>();
+    ParserConfiguration parserConfiguration = new ParserConfiguration();
+    parserConfiguration.setTieringPolicy(new TieringPolicy() {
+      public boolean shouldPromote(AccessorProfile profile) {
+        boolean promote = costPolicy.shouldPromote(profile);
+        if (promote) {
+          promoted.add(profile.getInvocations());
+        }
+        return promote;
+      }
+    });
+    Serializable compiled = MVEL.compileExpression("foo.bar.name", new ParserContext(parserConfiguration));
+    Base base = new Base();
+    for (int i = 0; i < 10000 && promoted.isEmpty(); i++) {
+      assertEquals("dog", MVEL.executeExpression(compiled, base));
+    }
+    assertEquals(1, promoted.size());
+
+    // the promoted accessor no longer consults the policy
+    for (int i = 0; i < 100; i++) {
+      assertEquals("dog", MVEL.executeExpression(compiled, base));
+    }
+    assertEquals(1, promoted.size());
+  }
+
+  public static class Calculator {
+    public long add(long a, int b) {
+      return a + b;
+    }
+  }
+
+  public void testMethodHandleOptimizer() {
+    Base base = new Base();
+    Accessor chain = OptimizerFactory.getAccessorCompiler(OptimizerFactory.HANDLES)
+        .optimizeAccessor(new ParserContext(), "foo.bar.name.length()".toCharArray(), 0, 21, base, base, null, false, null);
+    AccessorNode node = (AccessorNode) chain;
+    assertTrue(node instanceof MethodHandleFieldAccessor);
+    assertTrue((node = node.getNextNode()) instanceof MethodHandleGetterAccessor);
+    assertTrue((node = node.getNextNode()) instanceof MethodHandleGetterAccessor);
+    assertTrue(node.getNextNode() instanceof MethodHandleMethodAccessor);
+    assertEquals(3, chain.getValue(base, base, null));
+
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.HANDLES);
+    try {
+      Map<String, Object> vars = new HashMap<String, Object>();
+      vars.put("calc", new Calculator());
+      vars.put("base", base);
+      // arguments are coerced by the adapted handle
+      Serializable add = MVEL.compileExpression("calc.add(40, '2')");
+      for (int i = 0; i < 3; i++) {
+        assertEquals(42L, MVEL.executeExpression(add, vars));
+      }
+      Serializable assign = MVEL.compileExpression("base.sarahl = '7'");
+      MVEL.executeExpression(assign, vars);
+      assertEquals(7, base.sarahl);
+      assertEquals("dog", MVEL.executeExpression(MVEL.compileExpression("base.foo.bar.name"), vars));
+    }
+    finally {
+      OptimizerFactory.setDefaultOptimizer(OptimizerFactory.DYNAMIC);
+    }
+  }
 }
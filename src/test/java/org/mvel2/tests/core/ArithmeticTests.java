@@ -4,7 +4,9 @@ import org.junit.Assert;
 import org.mvel2.MVEL;
 import org.mvel2.ParserConfiguration;
 import org.mvel2.ParserContext;
+import org.mvel2.ast.NumericOperation;
 import org.mvel2.compiler.CompiledExpression;
+import org.mvel2.compiler.ExecutableAccessor;
 import org.mvel2.compiler.ExecutableStatement;
 import org.mvel2.compiler.ExpressionCompiler;
 import org.mvel2.optimizers.OptimizerFactory;
@@ -1085,4 +1087,55 @@ public class ArithmeticTests extends AbstractTest {
     Object result = MVEL.executeExpression(compileExpression, parserContext, expressionVars);
     Assert.assertEquals(3919.9, ((Number)result).doubleValue(), 0.01);
   }
+  public void testSpecializedNumericOperations() {
+    Serializable s = MVEL.compileExpression("raw * 0.1 - 40");
+    assertTrue(((ExecutableAccessor) s).getNode() instanceof NumericOperation);
+
+    Map vars = new HashMap();
+    for (int raw = 0; raw < 1000; raw += 7) {
+      vars.put("raw", raw);
+      assertEquals(raw * 0.1 - 40, MVEL.executeExpression(s, vars));
+    }
+
+    vars.put("a", 100000);
+    vars.put("b", 30000);
+    assertEquals(100000 * 30000 + 7, MVEL.executeExpression(MVEL.compileExpression("a * b + 7"), vars));
+    assertEquals(100000d / 30000, MVEL.executeExpression(MVEL.compileExpression("a / b * 1"), vars));
+    assertEquals(100000 % 30000 - 1, MVEL.executeExpression(MVEL.compileExpression("a % b - 1"), vars));
+    assertEquals(Boolean.TRUE, MVEL.executeExpression(MVEL.compileExpression("a - b > b * 2"), vars));
+    assertEquals(Boolean.FALSE, MVEL.executeExpression(MVEL.compileExpression("a / 2 == b + 20000.5"), vars));
+
+    vars.put("a", 5000000000L);
+    vars.put("b", 3L);
+    assertEquals(5000000000L * 3L - 1L, MVEL.executeExpression(MVEL.compileExpression("a * b - 1L"), vars));
+  }
+
+  public void testSpecializedNumericOperationsFallBack() {
+    Serializable s = MVEL.compileExpression("x * y + z");
+    Map vars = new HashMap();
+    vars.put("x", 2);
+    vars.put("y", 3);
+    vars.put("z", 4);
+    assertEquals(10, MVEL.executeExpression(s, vars));
+    assertEquals(10, MVEL.executeExpression(s, vars));
+
+    vars.put("z", 0.5);
+    assertEquals(6.5, MVEL.executeExpression(s, vars));
+
+    vars.put("y", 1.5);
+    assertEquals(3.5, MVEL.executeExpression(s, vars));
+
+    vars.put("z", "px");
+    assertEquals("3.0px", MVEL.executeExpression(s, vars));
+
+    vars.put("x", new BigDecimal("2.5"));
+    vars.put("y", new BigDecimal("2"));
+    vars.put("z", new BigDecimal("1"));
+    assertEquals(0, new BigDecimal("6").compareTo((BigDecimal) MVEL.executeExpression(s, vars)));
+
+    vars.put("x", 2);
+    vars.put("y", 3);
+    vars.put("z", 4);
+    assertEquals(10, MVEL.executeExpression(s, vars));
+  }
 }
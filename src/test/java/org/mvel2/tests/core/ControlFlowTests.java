@@ -8,6 +8,7 @@ import org.mvel2.tests.core.res.Base;
 import org.mvel2.tests.core.res.Foo;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.io.Serializable;
 
 import static org.mvel2.MVEL.compileExpression;
@@ -413,6 +414,95 @@ public class ControlFlowTests extends AbstractTest {
     assertEquals(true, MVEL.executeExpression(s, new HashMap()));
   }
 
+  public void testForEachOverChangingReceiverTypes() {
+    Serializable s = MVEL.compileExpression("out = ''; foreach (x : items) { out += x + ';' }; out");
+
+    Object[] receivers = {
+        new ArrayList(Arrays.asList(1, 2, 3)),
+        new LinkedList(Arrays.asList("a", "b")),
+        new int[]{4, 5},
+        new byte[]{-1, 127},
+        new double[]{0.5, 1.5},
+        new long[]{6L, 7L},
+        new String[]{"c", "d"},
+        "ef",
+        new StringBuilder("gh"),
+        3,
+        new HashSet(Arrays.asList(8)),
+        new ArrayList(Arrays.asList(9, 10))
+    };
+    String[] expected = {
+        "1;2;3;", "a;b;", "4;5;", "-1;127;", "0.5;1.5;", "6;7;", "c;d;", "e;f;", "g;h;", "1;2;3;", "8;", "9;10;"
+    };
+
+    for (int i = 0; i < receivers.length; i++) {
+      Map vars = new HashMap();
+      vars.put("items", receivers[i]);
+      assertEquals(expected[i], MVEL.executeExpression(s, vars));
+      assertEquals(expected[i], MVEL.eval("out = ''; foreach (x : items) { out += x + ';' }; out", vars));
+    }
+  }
+
+  public void testForEachOverRandomAccessListFailsOnModification() {
+    Map vars = new HashMap();
+    vars.put("items", new ArrayList(Arrays.asList(1, 2, 3)));
+    try {
+      MVEL.executeExpression(MVEL.compileExpression("foreach (x : items) { items.add(x) }"), vars);
+      fail("expected ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException e) {
+      // expected
+    }
+  }
+
+  public void testForEachOverListModifiedLikeIterator() {
+    Map vars = new HashMap();
+    vars.put("items", new ArrayList(Arrays.asList(1, 2, 3)));
+    try {
+      MVEL.executeExpression(MVEL.compileExpression("foreach (x : items) { if (x == 3) { items.add(4) } }"), vars);
+      fail("expected ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException e) {
+      // expected
+    }
+
+    List items = new ArrayList(Arrays.asList(1, 2, 3));
+    vars.put("items", items);
+    vars.put("seen", new ArrayList());
+    MVEL.executeExpression(MVEL.compileExpression("foreach (x : items) { seen.add(x); if (x == 2) { items.remove(0) } }"), vars);
+    assertEquals(Arrays.asList(1, 2), vars.get("seen"));
+    assertEquals(Arrays.asList(2, 3), items);
+
+    items = new CopyOnWriteArrayList(Arrays.asList(1, 2, 3));
+    vars.put("items", items);
+    vars.put("seen", new ArrayList());
+    MVEL.executeExpression(MVEL.compileExpression("foreach (x : items) { seen.add(x); items.add(x) }"), vars);
+    assertEquals(Arrays.asList(1, 2, 3), vars.get("seen"));
+    assertEquals(6, items.size());
+  }
+
+  public void testForEachOverListFailsOnSizePreservingModification() {
+    Map vars = new HashMap();
+    vars.put("items", new ArrayList(Arrays.asList(1, 2, 3)));
+    try {
+      MVEL.executeExpression(MVEL.compileExpression("foreach (x : items) { if (x == 1) { items.add(4); items.remove(0) } }"), vars);
+      fail("expected ConcurrentModificationException");
+    }
+    catch (ConcurrentModificationException e) {
+      // expected
+    }
+  }
+
+  public void testForEachOverCharSequenceIteratesSnapshot() {
+    Map vars = new HashMap();
+    StringBuilder chars = new StringBuilder("abc");
+    vars.put("chars", chars);
+    vars.put("seen", new ArrayList());
+    MVEL.executeExpression(MVEL.compileExpression("foreach (c : chars) { seen.add(c); chars.delete(1, 3) }"), vars);
+    assertEquals(Arrays.asList('a', 'b', 'c'), vars.get("seen"));
+    assertEquals("a", chars.toString());
+  }
+
   public final void testFunctionCall() {
 
     MVEL.eval(
@@ -235,4 +235,35 @@ public class FunctionsTest extends AbstractTest {
       throw new RuntimeException(ee);
     }
   }
+
+  public void testDeclaredFunctionsAreHoisted() {
+    CompiledExpression compiled = (CompiledExpression) MVEL.compileExpression(
+        "y = twice(x); def twice(v) { v * 2 }; def unused() { 0 }; y + twice(1)");
+    Function[] functions = compiled.getDeclaredFunctions();
+    assertEquals(2, functions.length);
+    assertEquals("twice", functions[0].getName());
+    assertEquals("unused", functions[1].getName());
+
+    Map<String, Object> first = new HashMap<String, Object>();
+    first.put("x", 5);
+    assertEquals(12, MVEL.executeExpression(compiled, first));
+
+    Map<String, Object> second = new HashMap<String, Object>();
+    second.put("x", 7);
+    assertEquals(16, MVEL.executeExpression(compiled, new MapVariableResolverFactory(second)));
+
+    // the instance bound to a declared function is shared by the executions
+    assertNotNull(second.get("twice"));
+    assertSame(first.get("twice"), second.get("twice"));
+  }
+
+  public void testFunctionFramesAreReset() {
+    Serializable compiled = MVEL.compileExpression(
+        "def mark(flag) { if (flag) { w = 7; }; isdef w }; " +
+            "def fib(n) { n < 2 ? n : fib(n - 1) + fib(n - 2) }; " +
+            "[mark(true), mark(false), fib(10), fib(12)]");
+    for (int i = 0; i < 3; i++) {
+      assertEquals(Arrays.asList(true, false, 55, 144), executeExpression(compiled, new HashMap()));
+    }
+  }
 }
@@ -0,0 +1,90 @@
+package org.mvel2.tests.core;
+
+import org.mvel2.MVEL;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Arithmetic on epoch timestamps and 64-bit counters, which must not lose precision through <tt>double</tt> nor
+ * silently overflow. Every expression is evaluated by the interpreter and, several times, as a compiled expression.
+ */
+public class LongArithmeticTests extends AbstractTest {
+  private static final long BEYOND_DOUBLE = (1L << 53) + 1;
+
+  private Map createVars() {
+    Map vars = new HashMap();
+    vars.put("ts", 1700000000123L);
+    vars.put("start", 1699999999000L);
+    vars.put("big", BEYOND_DOUBLE);
+    vars.put("nanos", 9007199254740993999L);
+    vars.put("max", Long.MAX_VALUE);
+    vars.put("min", Long.MIN_VALUE);
+    vars.put("seconds", 60);
+    vars.put("millis", 1000);
+    vars.put("imax", Integer.MAX_VALUE);
+    return vars;
+  }
+
+  private void assertResult(Object expected, String expression) {
+    assertEquals(expression, expected, MVEL.eval(expression, createVars()));
+
+    Serializable compiled = MVEL.compileExpression(expression);
+    for (int i = 0; i < 3; i++) {
+      assertEquals(expression, expected, MVEL.executeExpression(compiled, createVars()));
+    }
+  }
+
+  public void testTimestampDifference() {
+    assertResult(1123L, "ts - start");
+    assertResult(1L, "(ts - start) / millis");
+    assertResult(123L, "ts % millis");
+    assertResult(1700000000123L + 60 * 1000, "ts + seconds * millis");
+    assertResult(1700000000L, "ts / millis");
+    assertResult(true, "ts - start > millis");
+    assertResult(false, "ts - start == millis");
+  }
+
+  public void testBeyondDoublePrecision() {
+    assertResult(BEYOND_DOUBLE + 1, "big + 1");
+    assertResult(BEYOND_DOUBLE - 2, "big - 2");
+    assertResult(BEYOND_DOUBLE * 3, "big * 3");
+    assertResult(9007199254740993L, "nanos / millis");
+    assertResult(999L, "nanos % millis");
+    assertResult(true, "big != big - 1");
+    assertResult(true, "big - 1 < big");
+  }
+
+  public void testLongDivisionYieldsDouble() {
+    assertResult(3002399751580331d, "big / 3L");
+    assertResult(1700000000.123, "ts / 1000L");
+  }
+
+  public void testLongDivisionByZero() {
+    assertResult(Double.POSITIVE_INFINITY, "3L / 0L");
+    assertResult(Double.POSITIVE_INFINITY, "big / 0L");
+    assertResult(Double.NEGATIVE_INFINITY, "min / 0L");
+    assertResult(Double.POSITIVE_INFINITY, "9007199254740993L / 0L");
+  }
+
+  public void testOverflowPromotesToBigInteger() {
+    BigInteger max = BigInteger.valueOf(Long.MAX_VALUE);
+    BigInteger min = BigInteger.valueOf(Long.MIN_VALUE);
+
+    assertResult(max.add(BigInteger.ONE), "max + 1");
+    assertResult(max.add(BigInteger.ONE), "max + 1L");
+    assertResult(min.subtract(BigInteger.ONE), "min - 1");
+    assertResult(max.multiply(BigInteger.valueOf(2)), "max * 2L");
+    assertResult(min.negate(), "min / -1");
+    assertResult(max, "max + 1 - 1");
+    assertResult(true, "max + 1 > max");
+  }
+
+  public void testIntegerArithmeticUnchanged() {
+    assertResult(Integer.MIN_VALUE, "imax + 1");
+    assertResult(60000, "seconds * millis");
+    assertResult(0.06, "seconds / millis");
+  }
+}
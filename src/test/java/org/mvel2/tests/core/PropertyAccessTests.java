@@ -5,10 +5,16 @@ import org.mvel2.CompileException;
 import org.mvel2.MVEL;
 import org.mvel2.ParserContext;
 import org.mvel2.PropertyAccessException;
+import org.mvel2.PropertyAccessor;
 import org.mvel2.integration.PropertyHandler;
 import org.mvel2.integration.PropertyHandlerFactory;
+import org.mvel2.compiler.Accessor;
 import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
 import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.optimizers.impl.refl.nodes.InlineCache;
+import org.mvel2.optimizers.impl.refl.nodes.MethodAccessor;
+import org.mvel2.util.CacheStats;
 import org.mvel2.tests.core.res.Base;
 import org.mvel2.tests.core.res.Cake;
 import org.mvel2.tests.core.res.Foo;
@@ -596,4 +602,76 @@ public class PropertyAccessTests extends AbstractTest {
         Assert.assertTrue(pae.getMessage().contains("Error: unable to resolve method"));
       }
     }
+
+  public static class Sensor {
+    public String describe(Object value) {
+      return "sensor:" + value;
+    }
+
+    public double scale(double value) {
+      return value * 2;
+    }
+  }
+
+  public static class Gateway {
+    public String describe(Object value) {
+      return "gateway:" + value;
+    }
+  }
+
+  public void testPolymorphicInlineCache() {
+    Map<String, Object> vars = new HashMap<String, Object>();
+    vars.put("value", 1);
+    VariableResolverFactory factory = new MapVariableResolverFactory(vars);
+    long polymorphic = InlineCache.getPolymorphicCount();
+    long megamorphic = InlineCache.getMegamorphicCount();
+
+    Accessor describe = OptimizerFactory.getAccessorCompiler(OptimizerFactory.SAFE_REFLECTIVE)
+        .optimizeAccessor(new ParserContext(), "describe(value)".toCharArray(), 0, 15, new Sensor(), null, factory, false, null);
+    InlineCache cache = ((MethodAccessor) describe).getInlineCache();
+    assertEquals("sensor:1", describe.getValue(new Sensor(), null, factory));
+    assertEquals("gateway:1", describe.getValue(new Gateway(), null, factory));
+    assertEquals("sensor:1", describe.getValue(new Sensor(), null, factory));
+    assertEquals(2, cache.size());
+    assertEquals(polymorphic + 1, InlineCache.getPolymorphicCount());
+
+    for (Object value : new Object[]{"x", 2L, 3.5}) {
+      vars.put("value", value);
+      assertEquals("sensor:" + value, describe.getValue(new Sensor(), null, factory));
+    }
+    assertTrue(cache.isMegamorphic());
+    assertEquals(megamorphic + 1, InlineCache.getMegamorphicCount());
+    assertEquals("gateway:3.5", describe.getValue(new Gateway(), null, factory));
+
+    // the argument classes are part of the key: integers are coerced, doubles are passed as they are
+    vars.put("value", 2);
+    Accessor scale = OptimizerFactory.getAccessorCompiler(OptimizerFactory.SAFE_REFLECTIVE)
+        .optimizeAccessor(new ParserContext(), "scale(value)".toCharArray(), 0, 12, new Sensor(), null, factory, false, null);
+    assertEquals(4.0, scale.getValue(new Sensor(), null, factory));
+    vars.put("value", 2.5);
+    assertEquals(5.0, scale.getValue(new Sensor(), null, factory));
+    vars.put("value", 3);
+    assertEquals(6.0, scale.getValue(new Sensor(), null, factory));
+    assertEquals(2, ((MethodAccessor) scale).getInlineCache().size());
+  }
+
+  public static class CollidingProperties {
+    // "Aa" and "BB" have the same hash code
+    public String Aa = "first";
+    public String BB = "second";
+  }
+
+  public void testPropertyResolverCacheIsCollisionSafe() {
+    CollidingProperties bean = new CollidingProperties();
+    CacheStats before = PropertyAccessor.getCacheStats().get(0);
+    assertEquals("first", MVEL.getProperty("Aa", bean));
+    assertEquals("second", MVEL.getProperty("BB", bean));
+    assertEquals("first", MVEL.getProperty("Aa", bean));
+    assertEquals("second", MVEL.getProperty("BB", bean));
+
+    CacheStats after = PropertyAccessor.getCacheStats().get(0);
+    assertEquals("read property", after.getName());
+    assertEquals(before.getMissCount() + 2, after.getMissCount());
+    assertEquals(before.getHitCount() + 2, after.getHitCount());
+  }
 }
@@ -3,17 +3,26 @@ package org.mvel2.tests.core;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 import org.mvel2.CompileException;
+import org.mvel2.CompiledScriptCache;
 import org.mvel2.ExecutionContext;
+import org.mvel2.ExecutionContextPool;
+import org.mvel2.MVEL;
+import org.mvel2.ParserConfiguration;
 import org.mvel2.ParserContext;
 import org.mvel2.SandboxedParserConfiguration;
+import org.mvel2.ScriptExecutionStoppedException;
 import org.mvel2.ScriptMemoryOverflowException;
 import org.mvel2.ScriptRuntimeException;
 import org.mvel2.execution.ExecutionArrayList;
 import org.mvel2.execution.ExecutionHashMap;
 import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.optimizers.dynamic.BackgroundCompiler;
+import org.mvel2.optimizers.dynamic.DynamicOptimizer;
 import org.mvel2.util.MethodStub;
 
 import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
@@ -227,6 +236,242 @@ public class TbExpressionsTest extends TestCase {
         assertEquals(12, res);
     }
 
+    public void testLocalVariablesReleasedOnFunctionExit() {
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Object res = executeScript("function testFunc(a) { var t = 'abcdef'; var c = a + 1; return c; }\n" +
+                "var s = 0; for (var i = 0; i < 10; i++) { s = testFunc(s); } s", new HashMap(), executionContext);
+        assertEquals(10, res);
+        assertEquals(8, executionContext.getMemorySize());
+    }
+
+    public void testLocalVariablesOfSequentialFunctions() {
+        String script = "function first(x) { var a = x; return a; }\n" +
+                "function second(x) { var b = x + 'bcdefgh'; var a = 'ijklmnop'; return b; }\n" +
+                "first('a'); second('a')";
+        Serializable compiled = compileExpression(script, new ParserConfiguration());
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        assertEquals("abcdefgh", executeTbExpression(compiled, executionContext, new HashMap()));
+        assertEquals(0, executionContext.getMemorySize());
+        try {
+            executeTbExpression(compiled, new ExecutionContext(this.parserConfig, 12), new HashMap());
+            fail("Should throw ScriptMemoryOverflowException");
+        } catch (ScriptMemoryOverflowException e) {
+            assertTrue(e.getMessage().contains("Script memory overflow"));
+        }
+
+        // sandboxed scripts always have imports, so their functions use named slots: the registers of indexed
+        // functions are driven directly, both calls reusing the same frame
+        executionContext = new ExecutionContext(this.parserConfig);
+        executionContext.enterStack();
+        executionContext.checkAssignLocalVariable(1, "a", "a");
+        executionContext.leaveStack();
+        executionContext.enterStack();
+        executionContext.checkAssignLocalVariable(1, "b", "abcdefgh");
+        executionContext.checkAssignLocalVariable(2, "a", "ijklmnop");
+        assertEquals(16, executionContext.getMemorySize());
+        executionContext.leaveStack();
+        assertEquals(0, executionContext.getMemorySize());
+    }
+
+    public void testLocalVariablesOfReusedFrame() {
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        for (int i = 0; i < 200; i++) {
+            executionContext.enterStack();
+            executionContext.checkAssignLocalVariable(0, "v" + i, "abcd");
+            executionContext.checkAssignLocalVariable("w" + i, "efgh");
+            assertEquals(8, executionContext.getMemorySize());
+            executionContext.leaveStack();
+            assertEquals(0, executionContext.getMemorySize());
+            executionContext.reset();
+        }
+    }
+
+    public void testLongOverflowInSandbox() {
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("a", Long.MAX_VALUE / 2);
+        BigInteger expected = BigInteger.valueOf(Long.MAX_VALUE / 2).multiply(BigInteger.valueOf(3));
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        assertEquals(expected, executeScript("var x = a * 3; x", vars, executionContext));
+        assertEquals(expected.bitLength() / 8 + 1, executionContext.getMemorySize());
+
+        Object res = executeScript("var m = {}; m.v = a * 3; m.v", vars);
+        assertEquals(expected, res);
+
+        vars.put("t", 1700000000123L);
+        res = executeScript("var d = t * 1000000000; d", vars);
+        assertEquals(BigInteger.valueOf(1700000000123L).multiply(BigInteger.valueOf(1000000000)), res);
+
+        vars.put("price", new BigDecimal("12.50"));
+        executionContext = new ExecutionContext(this.parserConfig);
+        assertEquals(new BigDecimal("12.50"), executeScript("var p = price; p", vars, executionContext));
+        assertEquals(1 + 1 + 4, executionContext.getMemorySize());
+    }
+
+    public void testSharedValueAccounting() {
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Object res = executeScript("function testFunc(m) { var n = m; var k = n; return k; }\n" +
+                "var s = 'abcdef'; var t = testFunc(s); s = 1; t", new HashMap(), executionContext);
+        assertEquals("abcdef", res);
+        assertEquals(10, executionContext.getMemorySize());
+    }
+
+    public void testEstimatedStringSize() {
+        this.parserConfig.setStringSizeMode(SandboxedParserConfiguration.StringSizeMode.ESTIMATED);
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Object res = executeScript("var a = 'caf\u00e9'; var b = '\u043c\u0438\u0440'; a + b", new HashMap(), executionContext);
+        assertEquals("caf\u00e9\u043c\u0438\u0440", res);
+        assertEquals(4 + 3 * 2, executionContext.getMemorySize());
+    }
+
+    public void testLazyInputRepack() {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("b", 1);
+        Map<String, Object> listItem = new HashMap<>();
+        listItem.put("c", 2);
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("temperature", 25);
+        msg.put("a", nested);
+        msg.put("list", Arrays.asList(listItem, "d"));
+        msg.put("arr", new Object[]{"e", Arrays.asList("f")});
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("msg", msg);
+
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Object res = executeScript("var t = msg.temperature; t", vars, executionContext);
+        assertEquals(25, res);
+        // only the top level entries and the variable are accounted, nested values are never touched
+        assertEquals("temperature".length() + 4 + 4, executionContext.getMemorySize());
+
+        res = executeScript("msg.list[0].c = msg.a.b + msg.list[0].c; msg.arr[1].add('g'); msg", vars);
+        assertTrue(res instanceof Map);
+        Map<?, ?> resMsg = (Map<?, ?>) res;
+        assertFalse(resMsg instanceof ExecutionHashMap);
+        assertEquals(25, resMsg.get("temperature"));
+        assertEquals(nested, resMsg.get("a"));
+        assertNotSame(nested, resMsg.get("a"));
+        List<?> resList = (List<?>) resMsg.get("list");
+        assertEquals(3, ((Map<?, ?>) resList.get(0)).get("c"));
+        assertEquals("d", resList.get(1));
+        assertEquals(Arrays.asList("e", Arrays.asList("f", "g")), resMsg.get("arr"));
+        assertEquals(2, listItem.get("c"));
+    }
+
+    public void testDetachedResult() {
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("b", 1);
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("a", nested);
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("msg", msg);
+
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Serializable compiled = compileExpression("var m = {list: [1, {c: 2}], msg: msg}; m", new ParserContext());
+        Object res = MVEL.executeTbExpressionDetached(compiled, executionContext, vars);
+        assertTrue(res instanceof ExecutionHashMap);
+        ExecutionHashMap<String, Object> resMap = (ExecutionHashMap<String, Object>) res;
+        assertTrue(resMap.isDetached());
+        List<Object> list = (List<Object>) resMap.get("list");
+        assertTrue(((ExecutionArrayList<Object>) list).isDetached());
+        assertTrue(((ExecutionHashMap<?, ?>) list.get(1)).isDetached());
+        Map<String, Object> resMsg = (Map<String, Object>) resMap.get("msg");
+        assertEquals(nested, resMsg.get("a"));
+        assertNotSame(nested, resMsg.get("a"));
+
+        long memorySize = executionContext.getMemorySize();
+        resMap.put("d", "detached");
+        list.add(new Object());
+        assertEquals(memorySize, executionContext.getMemorySize());
+
+        ExecutionArrayList<Object> slice = ((ExecutionArrayList<Object>) list).slice(0, 1);
+        assertTrue(slice.isDetached());
+        assertEquals(Arrays.asList(1), slice);
+        assertEquals("[1]", slice.toString());
+        assertFalse(resMap.toString().startsWith("(id="));
+    }
+
+    public void testExecutionContextPool() {
+        ExecutionContextPool pool = new ExecutionContextPool(this.parserConfig, 5 * 1024 * 1024);
+        ExecutionContext executionContext = pool.acquire();
+        Object res = executeScript("function testFunc(a) { var t = 'abc' + a; return t; } var m = {a: testFunc(1)}; m", new HashMap(), executionContext);
+        assertEquals("abc1", ((Map<?, ?>) res).get("a"));
+        assertTrue(executionContext.getMemorySize() > 0);
+        executionContext.stop();
+        pool.release(executionContext);
+
+        assertSame(executionContext, pool.acquire());
+        assertEquals(0, executionContext.getMemorySize());
+        res = executeScript("var m = {a: 1}; m", new HashMap(), executionContext);
+        assertEquals(1, ((Map<?, ?>) res).get("a"));
+        assertNotSame(executionContext, pool.acquire());
+
+        pool = ExecutionContextPool.builder(this.parserConfig)
+                .maxAllowedMemory(1024)
+                .maxAllowedIterations(100)
+                .maxPoolSize(1)
+                .build();
+        executionContext = pool.acquire();
+        assertEquals(1024, executionContext.getMaxAllowedMemory());
+        assertEquals(10, executionContext.getMaxAllowedMethodArgs());
+        assertEquals(100, executionContext.getMaxAllowedIterations());
+        ExecutionContext other = pool.acquire();
+        pool.release(executionContext);
+        pool.release(other);
+        assertSame(executionContext, pool.acquire());
+        assertNotSame(other, pool.acquire());
+    }
+
+    public void testLazyInputRepackOfPrimitiveArray() {
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("payload", new byte[]{1, 2, 3});
+        Map<String, Object> vars = new HashMap<>();
+        vars.put("msg", msg);
+
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        Object res = executeScript("var p = msg.payload; p.push(4); p", vars, executionContext);
+        assertEquals(Arrays.asList((byte) 1, (byte) 2, (byte) 3, 4), res);
+
+        // a nested primitive array is accounted the same way as a list holding its elements
+        msg.put("payload", Arrays.asList((byte) 1, (byte) 2, (byte) 3));
+        ExecutionContext listExecutionContext = new ExecutionContext(this.parserConfig);
+        executeScript("var p = msg.payload; p.push(4); p", vars, listExecutionContext);
+        assertEquals(listExecutionContext.getMemorySize(), executionContext.getMemorySize());
+    }
+
+    public void testBackgroundPromotion() throws InterruptedException {
+        OptimizerFactory.setDefaultOptimizer(OptimizerFactory.DYNAMIC);
+        BackgroundCompiler compiler = new BackgroundCompiler();
+        DynamicOptimizer.setBackgroundCompiler(compiler);
+        try {
+            Serializable compiled = compileExpression("var t = msg.temperature; var u = msg.unit.toUpperCase(); t + u",
+                    new ParserContext());
+            Map<String, Object> msg = new HashMap<>();
+            msg.put("temperature", 25);
+            msg.put("unit", "c");
+            for (int i = 0; i <= DynamicOptimizer.tenuringThreshold + 1; i++) {
+                Map<String, Object> vars = new HashMap<>();
+                vars.put("msg", msg);
+                assertEquals("25C", executeTbExpression(compiled, new ExecutionContext(this.parserConfig), vars));
+            }
+            // the map access and the method invocation are both promoted off the request thread
+            assertEquals(2, compiler.getSubmittedCount());
+            for (int i = 0; i < 500 && compiler.getCompletedCount() < compiler.getSubmittedCount(); i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(compiler.getSubmittedCount(), compiler.getCompletedCount());
+            assertEquals(0, compiler.getFailedCount());
+
+            // the swapped in accessors serve the following executions
+            msg.put("temperature", 26);
+            Map<String, Object> vars = new HashMap<>();
+            vars.put("msg", msg);
+            assertEquals("26C", executeTbExpression(compiled, new ExecutionContext(this.parserConfig), vars));
+        } finally {
+            DynamicOptimizer.setBackgroundCompiler(null);
+            compiler.shutdown();
+            OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+        }
+    }
+
     public void testComments() {
         Object res = executeScript("//var df = sdfsdf; \n // test comment: comment2 \n m = {\n// c: d, \n /* e: \n\nf, */ a: 2 }; m");
         assertTrue(res instanceof HashMap);
@@ -257,6 +502,117 @@ public class TbExpressionsTest extends TestCase {
         assertEquals("Script execution is stopped!", exception.getMessage());
     }
 
+    public void testIterationsLimit() {
+        long memoryLimit = 5 * 1024 * 1024; // 5MB
+        Object res = executeScript("var s = 0; for (var i = 0; i < 1000; i++) { s += i; }; s", new HashMap(),
+                new ExecutionContext(parserConfig, memoryLimit, 10, 1000));
+        assertEquals(499500, res);
+        try {
+            executeScript("var s = 0; for (var i = 0; i < 1001; i++) { s += i; }; s", new HashMap(),
+                    new ExecutionContext(parserConfig, memoryLimit, 10, 1000));
+            fail("Should throw ScriptExecutionStoppedException");
+        } catch (ScriptExecutionStoppedException e) {
+            assertTrue(e.getMessage().contains("Script iterations limit exceeded"));
+            assertTrue(e.getMessage().contains("1001 > 1000"));
+        }
+    }
+
+    public void testCompiledScriptCache() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(2);
+        Serializable compiled = cache.get("var a = 1; a + 1", parserConfig);
+        assertSame(compiled, cache.get("var a = 1; a + 1", parserConfig));
+        assertNotSame(compiled, cache.get("var a = 1; a + 1", new SandboxedParserConfiguration()));
+        assertEquals(2, executeTbExpression(compiled, new ExecutionContext(parserConfig), new HashMap()));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+
+        cache.get("var b = 2; b", parserConfig);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        // the entry that was accessed again survives the eviction
+        assertSame(compiled, cache.get("var a = 1; a + 1", parserConfig));
+
+        try {
+            cache.get("var c = ;", parserConfig);
+            fail("Should throw CompileException");
+        } catch (CompileException e) {
+            // expected
+        }
+        assertEquals(2, cache.size());
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeightedSize());
+    }
+
+    public void testCompiledScriptCacheSingleFlight() throws Exception {
+        CompiledScriptCache cache = new CompiledScriptCache(100);
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        Serializable[] results = new Serializable[threads];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int idx = i;
+            workers[i] = new Thread(() -> {
+                try {
+                    start.await();
+                    results[idx] = cache.get("var s = 0; for (var i = 0; i < 10; i++) { s += i; } s", parserConfig);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            workers[i].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(threads - 1, cache.getHitCount());
+        for (Serializable result : results) {
+            assertSame(results[0], result);
+        }
+    }
+
+    public void testPerContextSandboxedMode() {
+        ParserContext.disableSandboxedMode();
+        try {
+            assertFalse(new ParserContext().isSandboxed());
+            assertTrue(new ParserContext(parserConfig).isSandboxed());
+
+            Serializable plain = compileExpression("System.currentTimeMillis() > 0", new ParserContext());
+            assertEquals(Boolean.TRUE, MVEL.executeExpression(plain));
+
+            try {
+                Serializable compiled = compileExpression("m = {5}; System.exit(-1); m", parserConfig);
+                executeTbExpression(compiled, new ExecutionContext(parserConfig), new HashMap());
+                fail("Should throw CompileException");
+            } catch (CompileException e) {
+                assertTrue(e.getMessage().contains("unresolvable property or identifier: System"));
+            }
+
+            Serializable sandboxed = compileExpression("var m = {a: 1}; m.a + 1", parserConfig);
+            assertEquals(2, executeTbExpression(sandboxed, new ExecutionContext(parserConfig), new HashMap()));
+        } finally {
+            this.parserConfig = ParserContext.enableSandboxedMode();
+        }
+    }
+
+    public void testGlobalSandboxedModeOverridesPlainConfiguration() {
+        ParserConfiguration plainConfig = new ParserConfiguration();
+        assertTrue(new ParserContext(plainConfig).isSandboxed());
+        assertTrue(new ParserContext(new HashMap<>(), null, null).isSandboxed());
+        assertTrue(new ParserContext(parserConfig).isSandboxed());
+
+        try {
+            Serializable compiled = compileExpression("m = {5}; System.exit(-1); m", plainConfig);
+            executeTbExpression(compiled, new ExecutionContext(parserConfig), new HashMap());
+            fail("Should throw CompileException");
+        } catch (CompileException e) {
+            assertTrue(e.getMessage().contains("unresolvable property or identifier: System"));
+        }
+    }
+
     public void testMemoryOverflowVariable() {
         long memoryLimit = 5 * 1024 * 1024; // 5MB
         try {
@@ -739,6 +1095,17 @@ public class TbExpressionsTest extends TestCase {
         }
     }
 
+    public void testReRegisterDataType() {
+        this.parserConfig.registerDataType("MyTest", MyTestClass.class, val -> 1L);
+        ExecutionContext executionContext = new ExecutionContext(this.parserConfig);
+        executeScript("var t = new MyTest('test val'); t", new HashMap(), executionContext);
+        assertEquals(1, executionContext.getMemorySize());
+        this.parserConfig.registerDataType("MyTest", MyTestClass.class, val -> (long)val.getValue().getBytes().length);
+        executionContext = new ExecutionContext(this.parserConfig);
+        executeScript("var t = new MyTest('test val'); t", new HashMap(), executionContext);
+        assertEquals(8, executionContext.getMemorySize());
+    }
+
     public void testDate() {
         Object res = executeScript("var t = new java.util.Date(); t");
         assertTrue(res instanceof Date);
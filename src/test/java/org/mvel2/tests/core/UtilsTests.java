@@ -2,7 +2,11 @@ package org.mvel2.tests.core;
 
 import junit.framework.TestCase;
 import org.mvel2.MVEL;
+import org.mvel2.Operator;
 import org.mvel2.util.FastList;
+import org.mvel2.util.OperandStack;
+import org.mvel2.util.ParseTools;
+import org.mvel2.util.ResolvedMethod;
 import org.mvel2.util.StringAppender;
 
 import java.util.HashMap;
@@ -112,4 +116,53 @@ public class UtilsTests extends TestCase {
     assertEquals(1, ((List) map.get("list")).size());
   }
 
+
+  public void testMemoizedBestCandidate() {
+    ResolvedMethod exact = ParseTools.resolveBestCandidate(new Class[]{Integer.class}, "abs", Math.class, false, false);
+    assertEquals(int.class, exact.getMethod().getParameterTypes()[0]);
+    assertFalse(exact.isCoercionNeeded());
+    assertSame(exact, ParseTools.resolveBestCandidate(new Class[]{Integer.class}, "abs", Math.class, false, false));
+
+    // a different argument vector is resolved on its own, and its plan converts the argument
+    ResolvedMethod coerced = ParseTools.resolveBestCandidate(new Class[]{String.class}, "abs", Math.class, false, false);
+    Object[] args = coerced.coerce(new Object[]{"3"});
+    assertTrue(coerced.isCoercionNeeded());
+    assertSame(ParseTools.boxPrimitive(coerced.getMethod().getParameterTypes()[0]), args[0].getClass());
+    assertTrue(coerced.matches(new Object[]{"4"}));
+    assertFalse(coerced.matches(new Object[]{4}));
+
+    assertNull(ParseTools.resolveBestCandidate(new Class[0], "noSuchMethod", Math.class, false, false).getMethod());
+  }
+
+  public void testOperandStackFrames() {
+    OperandStack stk = new OperandStack();
+    stk.push(10);
+    stk.push(4, Operator.SUB);
+
+    int enclosing = stk.enter();
+    assertTrue(stk.isEmpty());
+    stk.push(2);
+    stk.push(3, Operator.MULT);
+    stk.op();
+    assertEquals(6, stk.pop());
+    assertNull(stk.pop());
+    stk.push("left over");
+    stk.exit(enclosing);
+
+    assertEquals(2, stk.size());
+    assertEquals(Operator.SUB, stk.peekOperator());
+    stk.op();
+    assertEquals(6, stk.peek());
+    assertFalse(stk.isReduceable());
+  }
+
+  public void testInterpreterReentrance() {
+    Map<String, Object> vars = new HashMap<String, Object>();
+    vars.put("n", 10);
+    Object result = MVEL.executeExpression(MVEL.compileExpression(
+        "def fib(x) { x < 2 ? x : fib(x - 1) + fib(x - 2) }; 1 + fib(n) * 2 - (n > 5 ? fib(5) : 0)"), vars);
+    assertEquals(106, result);
+    assertTrue(OperandStack.get().isEmpty());
+    assertEquals(0, OperandStack.get().size());
+  }
 }
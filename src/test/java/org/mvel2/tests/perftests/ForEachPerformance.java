@@ -0,0 +1,67 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the time and the heap allocated per execution of a <tt>foreach</tt> loop over the payload types of binary
+ * decoders: lists, primitive arrays and strings. Requires a JVM supporting
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class ForEachPerformance {
+  private static final int WARMUP = 20000;
+  private static final int ITERATIONS = 200000;
+  private static final int LENGTH = 256;
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    List list = new ArrayList();
+    byte[] bytes = new byte[LENGTH];
+    int[] ints = new int[LENGTH];
+    double[] doubles = new double[LENGTH];
+    StringBuilder chars = new StringBuilder();
+    for (int i = 0; i < LENGTH; i++) {
+      list.add(i & 0x7f);
+      bytes[i] = (byte) i;
+      ints[i] = i & 0x7f;
+      doubles[i] = i * 0.5;
+      chars.append((char) ('a' + i % 26));
+    }
+
+    Object[] payloads = {list, bytes, ints, doubles, chars.toString()};
+    for (Object payload : payloads) {
+      Serializable compiled = MVEL.compileExpression("n = 0; foreach (v : payload) { n++ }; n");
+      Map vars = new HashMap();
+      vars.put("payload", payload);
+      VariableResolverFactory factory = new MapVariableResolverFactory(vars);
+      run(compiled, factory, WARMUP);
+
+      long allocated = threads.getThreadAllocatedBytes(thread);
+      long time = System.nanoTime();
+      run(compiled, factory, ITERATIONS);
+      time = System.nanoTime() - time;
+      allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+
+      System.out.println(payload.getClass().getSimpleName() + "[" + LENGTH + "]; per execution: "
+          + (time / ITERATIONS) + " ns, " + (allocated / ITERATIONS) + " bytes");
+    }
+  }
+
+  private static void run(Serializable compiled, VariableResolverFactory factory, int iterations) {
+    for (int i = 0; i < iterations; i++) {
+      MVEL.executeExpression(compiled, factory);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the per-execution cost of binding the functions declared by a script, of which only one is called.
+ * Every execution gets fresh variables, as when a script processes a stream of messages. Requires a JVM supporting
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class FunctionDeclarationPerformance {
+  private static final int WARMUP = 100000;
+  private static final int ITERATIONS = 500000;
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    for (int helpers : new int[]{0, 10, 50}) {
+      Serializable compiled = MVEL.compileExpression(script(helpers));
+      run(compiled, WARMUP);
+
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      long time = System.nanoTime();
+      run(compiled, ITERATIONS);
+      time = System.nanoTime() - time;
+      bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+      System.out.println("Helpers: " + helpers + "; per execution: " + (time / ITERATIONS) + " ns, "
+          + (bytes / ITERATIONS) + " bytes");
+    }
+  }
+
+  private static void run(Serializable compiled, int iterations) {
+    for (int i = 0; i < iterations; i++) {
+      Map vars = new HashMap();
+      vars.put("x", i & 0xff);
+      MVEL.executeExpression(compiled, new MapVariableResolverFactory(vars));
+    }
+  }
+
+  private static String script(int helpers) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < helpers; i++) {
+      sb.append("def helper").append(i).append("(v) { v * ").append(i).append(" + 1 };\n");
+    }
+    sb.append("def decode(v) { v * 2 - 1 };\n");
+    sb.append("decode(x)");
+    return sb.toString();
+  }
+}
@@ -0,0 +1,95 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.optimizers.OptimizerFactory;
+import org.mvel2.optimizers.dynamic.DynamicOptimizer;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures how JIT promotion of accessors scales with the number of threads warming up at the same time.
+ * Every thread compiles its own expressions and executes each of them past the tenuring threshold, so every
+ * expression ends up generating and loading its own accessor classes.
+ */
+public class JitWarmupPerformance {
+  private static final int EXPRESSIONS_PER_THREAD = 500;
+
+  public static void main(String[] args) throws Exception {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.DYNAMIC);
+    int cores = Runtime.getRuntime().availableProcessors();
+    for (int round = 0; round < 3; round++) {
+      for (int threads = 1; threads <= cores; threads <<= 1) {
+        long time = run(threads);
+        System.out.println("Threads: " + threads + "; expressions promoted per second: "
+            + ((long) threads * EXPRESSIONS_PER_THREAD * 1000000000L / time));
+      }
+    }
+  }
+
+  private static long run(int threads) throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      final List<Serializable> compiled = new ArrayList<Serializable>();
+      for (int i = 0; i < EXPRESSIONS_PER_THREAD; i++) {
+        compiled.add(MVEL.compileExpression("holder.name.length() + holder.value * " + i));
+      }
+      new Thread(new Runnable() {
+        public void run() {
+          try {
+            start.await();
+            Holder holder = new Holder("sensor", 21);
+            for (Serializable expression : compiled) {
+              for (int i = 0; i <= DynamicOptimizer.tenuringThreshold + 1; i++) {
+                MVEL.executeExpression(expression, new Ctx(holder));
+              }
+            }
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          finally {
+            done.countDown();
+          }
+        }
+      }).start();
+    }
+    long time = System.nanoTime();
+    start.countDown();
+    done.await();
+    return System.nanoTime() - time;
+  }
+
+  public static class Ctx {
+    private final Holder holder;
+
+    public Ctx(Holder holder) {
+      this.holder = holder;
+    }
+
+    public Holder getHolder() {
+      return holder;
+    }
+  }
+
+  public static class Holder {
+    private final String name;
+    private final int value;
+
+    public Holder(String name, int value) {
+      this.name = name;
+      this.value = value;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public int getValue() {
+      return value;
+    }
+  }
+}
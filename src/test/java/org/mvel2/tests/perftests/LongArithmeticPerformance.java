@@ -0,0 +1,88 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.math.MathProcessor;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mvel2.Operator.ADD;
+import static org.mvel2.Operator.DIV;
+import static org.mvel2.Operator.GTHAN;
+import static org.mvel2.Operator.MOD;
+import static org.mvel2.Operator.MULT;
+import static org.mvel2.Operator.SUB;
+
+/**
+ * Measures {@link MathProcessor} on mixed <tt>Integer</tt>/<tt>Long</tt> operands, and compiled expressions on epoch
+ * timestamps, as found in telemetry rules.
+ */
+public class LongArithmeticPerformance {
+  private static final int WARMUP = 500000;
+  private static final int ITERATIONS = 5000000;
+
+  private static final int[] OPERATIONS = {ADD, SUB, MULT, DIV, MOD, GTHAN};
+  private static final String[] OPERATION_NAMES = {"+", "-", "*", "/", "%", ">"};
+
+  private static final String[] EXPRESSIONS = {
+      "ts - start > timeout * 1000",
+      "(ts - start) / 1000 % 60",
+      "ts / 3600000 * 3600000 + offset"
+  };
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    Long timestamp = 1700000000123L;
+    Integer millis = 1000;
+
+    for (int i = 0; i < OPERATIONS.length; i++) {
+      operate(timestamp, OPERATIONS[i], millis, WARMUP);
+
+      long time = System.nanoTime();
+      Object result = operate(timestamp, OPERATIONS[i], millis, ITERATIONS);
+      time = System.nanoTime() - time;
+
+      System.out.println("Long " + OPERATION_NAMES[i] + " Integer = " + result + "; per operation: "
+          + String.format("%.1f", (double) time / ITERATIONS) + " ns");
+    }
+
+    Map vars = new HashMap();
+    vars.put("ts", timestamp);
+    vars.put("start", 1699999000000L);
+    vars.put("timeout", 30);
+    vars.put("offset", 120000);
+    VariableResolverFactory factory = new MapVariableResolverFactory(vars);
+
+    for (String expression : EXPRESSIONS) {
+      Serializable compiled = MVEL.compileExpression(expression);
+      execute(compiled, factory, WARMUP);
+
+      long time = System.nanoTime();
+      Object result = execute(compiled, factory, ITERATIONS);
+      time = System.nanoTime() - time;
+
+      System.out.println(expression + " = " + result + "; per execution: "
+          + String.format("%.1f", (double) time / ITERATIONS) + " ns");
+    }
+  }
+
+  private static Object operate(Object left, int operation, Object right, int iterations) {
+    Object result = null;
+    for (int i = 0; i < iterations; i++) {
+      result = MathProcessor.doOperations(left, operation, right);
+    }
+    return result;
+  }
+
+  private static Object execute(Serializable compiled, VariableResolverFactory factory, int iterations) {
+    Object result = null;
+    for (int i = 0; i < iterations; i++) {
+      result = MVEL.executeExpression(compiled, factory);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,66 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the time and the heap allocated per execution of telemetry-style conversions, whose intermediate results
+ * are not boxed by the specialized numeric operations ({@link org.mvel2.ast.NumericOperation}). The operands are
+ * outside of the {@link Integer} cache, as sensor readings usually are. Requires a JVM supporting
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class NumericOperationPerformance {
+  private static final int WARMUP = 200000;
+  private static final int ITERATIONS = 2000000;
+
+  private static final String[] EXPRESSIONS = {
+      "raw * 0.1 - 40",
+      "raw * 0.1 - 40 > limit",
+      "raw * 9 / 5 + 32",
+      "(raw - offset) * scale + offset * 2 - raw % 1000",
+      "ts / 1000 - offset"
+  };
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    Map vars = new HashMap();
+    vars.put("raw", 1234);
+    vars.put("limit", 75.5);
+    vars.put("offset", 5000);
+    vars.put("scale", 0.25);
+    vars.put("ts", 1700000000000L);
+    VariableResolverFactory factory = new MapVariableResolverFactory(vars);
+
+    for (String expression : EXPRESSIONS) {
+      Serializable compiled = MVEL.compileExpression(expression);
+      run(compiled, factory, WARMUP);
+
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      long time = System.nanoTime();
+      Object result = run(compiled, factory, ITERATIONS);
+      time = System.nanoTime() - time;
+      bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+      System.out.println(expression + " = " + result + "\n  per execution: " + (time / ITERATIONS) + " ns, "
+          + String.format("%.1f", (double) bytes / ITERATIONS) + " bytes");
+    }
+  }
+
+  private static Object run(Serializable compiled, VariableResolverFactory factory, int iterations) {
+    Object result = null;
+    for (int i = 0; i < iterations; i++) {
+      result = MVEL.executeExpression(compiled, factory);
+    }
+    return result;
+  }
+}
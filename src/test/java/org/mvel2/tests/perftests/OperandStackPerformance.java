@@ -0,0 +1,65 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.MVEL;
+import org.mvel2.integration.VariableResolverFactory;
+import org.mvel2.integration.impl.MapVariableResolverFactory;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the time and the heap allocated per execution of arithmetic-heavy expressions in the compiled-expression
+ * interpreter, whose operand stack ({@link org.mvel2.util.OperandStack}) is reused across executions. Operands are kept
+ * within the {@link Integer} cache and the variable factory is reused, so what is left is allocated by the AST nodes
+ * themselves. Requires a JVM supporting {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+public class OperandStackPerformance {
+  private static final int WARMUP = 200000;
+  private static final int ITERATIONS = 1000000;
+
+  private static final String[] EXPRESSIONS = {
+      "a + b * c - d",
+      "((a + b) * (c - d) + a * b - c) * 2 - (a - b) * (c + d) + d * d - a",
+      "a + b > c && c * d < 100 || a == b",
+      "if (a < b) { a * c + d } else { b * c - d }",
+      "x = a * b; y = x - c * d; z = x + y; x * y - z",
+      "def f(p, q) { p * q - d }; f(a, b) + f(c, d) - f(b, c)",
+      "s = 0; foreach (i : 10) { s = s + i * a - b }; s"
+  };
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+
+    Map vars = new HashMap();
+    vars.put("a", 3);
+    vars.put("b", 5);
+    vars.put("c", 7);
+    vars.put("d", 2);
+    VariableResolverFactory factory = new MapVariableResolverFactory(vars);
+
+    for (String expression : EXPRESSIONS) {
+      Serializable compiled = MVEL.compileExpression(expression);
+      run(compiled, factory, WARMUP);
+
+      long bytes = threads.getThreadAllocatedBytes(thread);
+      long time = System.nanoTime();
+      run(compiled, factory, ITERATIONS);
+      time = System.nanoTime() - time;
+      bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+
+      System.out.println(expression + "\n  per execution: " + (time / ITERATIONS) + " ns, "
+          + String.format("%.1f", (double) bytes / ITERATIONS) + " bytes");
+    }
+  }
+
+  private static void run(Serializable compiled, VariableResolverFactory factory, int iterations) {
+    for (int i = 0; i < iterations; i++) {
+      MVEL.executeExpression(compiled, factory);
+    }
+  }
+}
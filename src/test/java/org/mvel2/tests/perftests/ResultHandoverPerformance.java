@@ -0,0 +1,58 @@
+package org.mvel2.tests.perftests;
+
+import com.sun.management.ThreadMXBean;
+import org.mvel2.ExecutionContext;
+import org.mvel2.SandboxedParserConfiguration;
+import org.mvel2.execution.ExecutionArrayList;
+import org.mvel2.execution.ExecutionHashMap;
+import org.mvel2.util.ArgsRepackUtil;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares handing a large nested script result over to the caller with a deep copy
+ * ({@link ArgsRepackUtil#unpack(Object)}) and by detaching the execution collections ({@link ArgsRepackUtil#detach(Object)}).
+ */
+public class ResultHandoverPerformance {
+  private static final int ENTRIES = 10000;
+  private static final int ITERATIONS = 200;
+
+  public static void main(String[] args) {
+    SandboxedParserConfiguration parserConfig = new SandboxedParserConfiguration();
+    ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    for (int round = 0; round < 5; round++) {
+      for (boolean detach : new boolean[]{false, true}) {
+        long time = 0;
+        long allocated = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+          Object result = result(new ExecutionContext(parserConfig));
+          long bytes = threadBean.getThreadAllocatedBytes(threadId);
+          long start = System.nanoTime();
+          Object handedOver = detach ? ArgsRepackUtil.detach(result) : ArgsRepackUtil.unpack(result);
+          time += System.nanoTime() - start;
+          allocated += threadBean.getThreadAllocatedBytes(threadId) - bytes;
+          if (handedOver == null) {
+            throw new IllegalStateException();
+          }
+        }
+        System.out.println((detach ? "Detach: " : "Unpack: ") + (time / ITERATIONS / 1000) + " us; "
+            + (allocated / ITERATIONS / 1024) + " KB allocated per result");
+      }
+    }
+  }
+
+  private static Object result(ExecutionContext ctx) {
+    ExecutionHashMap<String, Object> result = new ExecutionHashMap<>(ENTRIES, ctx);
+    for (int i = 0; i < ENTRIES; i++) {
+      ExecutionHashMap<String, Object> entry = new ExecutionHashMap<>(4, ctx);
+      entry.put("ts", 1700000000000L + i);
+      entry.put("value", i * 0.5d);
+      ExecutionArrayList<Object> tags = new ExecutionArrayList<>(ctx);
+      tags.add("tag" + (i % 10));
+      entry.put("tags", tags);
+      result.put("key" + i, entry);
+    }
+    return result;
+  }
+}
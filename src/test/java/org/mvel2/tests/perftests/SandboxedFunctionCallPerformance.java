@@ -0,0 +1,59 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.ExecutionContext;
+import org.mvel2.MVEL;
+import org.mvel2.ParserContext;
+import org.mvel2.SandboxedParserConfiguration;
+import org.mvel2.optimizers.OptimizerFactory;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Measures the per-call overhead of {@link org.mvel2.ast.FunctionInstance#call} under sandboxed execution.
+ * A number of global variables are kept alive while a small function is invoked in a loop, so the cost
+ * of entering and leaving the function scope is visible in the numbers.
+ */
+public class SandboxedFunctionCallPerformance {
+  private static final int CALLS = 1000;
+  private static final int WARMUP = 1000;
+  private static final int ITERATIONS = 2000;
+
+  public static void main(String[] args) {
+    OptimizerFactory.setDefaultOptimizer(OptimizerFactory.SAFE_REFLECTIVE);
+    SandboxedParserConfiguration parserConfig = ParserContext.enableSandboxedMode();
+    try {
+      for (int globals : new int[]{0, 100, 1000}) {
+        Serializable compiled = MVEL.compileExpression(script(globals), new ParserContext());
+        run(compiled, parserConfig, WARMUP);
+        long time = System.nanoTime();
+        run(compiled, parserConfig, ITERATIONS);
+        time = System.nanoTime() - time;
+        System.out.println("Globals: " + globals + "; per call: " + (time / ((long) ITERATIONS * CALLS)) + " ns");
+      }
+    }
+    finally {
+      ParserContext.disableSandboxedMode();
+    }
+  }
+
+  private static void run(Serializable compiled, SandboxedParserConfiguration parserConfig, int iterations) {
+    Map vars = new HashMap();
+    for (int i = 0; i < iterations; i++) {
+      MVEL.executeTbExpression(compiled, new ExecutionContext(parserConfig), vars);
+    }
+  }
+
+  private static String script(int globals) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < globals; i++) {
+      sb.append("g").append(i).append(" = ").append(i).append(";\n");
+    }
+    sb.append("function add(a, b) { var c = a + b; return c; }\n");
+    sb.append("var s = 0;\n");
+    sb.append("for (var i = 0; i < ").append(CALLS).append("; i++) { s = add(s, i); }\n");
+    sb.append("s");
+    return sb.toString();
+  }
+}
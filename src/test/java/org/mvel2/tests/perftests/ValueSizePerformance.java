@@ -0,0 +1,61 @@
+package org.mvel2.tests.perftests;
+
+import org.mvel2.ExecutionContext;
+import org.mvel2.SandboxedParserConfiguration;
+import org.mvel2.execution.ExecutionHashMap;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Measures the cost of sandbox memory accounting for a typical telemetry message: every value put into an
+ * {@link ExecutionHashMap} is sized by the {@link ExecutionContext}.
+ */
+public class ValueSizePerformance {
+  private static final int WARMUP = 200000;
+  private static final int ITERATIONS = 1000000;
+
+  public static void main(String[] args) {
+    SandboxedParserConfiguration parserConfig = new SandboxedParserConfiguration();
+    Map<String, Object> telemetry = telemetry();
+    for (int i = 0; i < 5; i++) {
+      run(parserConfig, telemetry, WARMUP);
+      long time = System.nanoTime();
+      run(parserConfig, telemetry, ITERATIONS);
+      time = System.nanoTime() - time;
+      System.out.println("Per value: " + (time / ((long) ITERATIONS * telemetry.size())) + " ns");
+    }
+  }
+
+  private static long run(SandboxedParserConfiguration parserConfig, Map<String, Object> telemetry, int iterations) {
+    long total = 0;
+    for (int i = 0; i < iterations; i++) {
+      ExecutionContext ctx = new ExecutionContext(parserConfig);
+      ExecutionHashMap<String, Object> map = new ExecutionHashMap<>(telemetry.size(), ctx);
+      for (Map.Entry<String, Object> entry : telemetry.entrySet()) {
+        map.put(entry.getKey(), entry.getValue());
+      }
+      total += ctx.getMemorySize();
+    }
+    return total;
+  }
+
+  private static Map<String, Object> telemetry() {
+    Map<String, Object> telemetry = new LinkedHashMap<>();
+    telemetry.put("deviceName", "Thermostat A-17");
+    telemetry.put("deviceId", UUID.randomUUID());
+    telemetry.put("ts", System.currentTimeMillis());
+    telemetry.put("temperature", 21.5d);
+    telemetry.put("humidity", 48);
+    telemetry.put("battery", 3.3f);
+    telemetry.put("active", Boolean.TRUE);
+    telemetry.put("rssi", (short) -71);
+    telemetry.put("status", (byte) 1);
+    telemetry.put("lastSeen", new Date());
+    telemetry.put("raw", new byte[]{0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08});
+    telemetry.put("firmware", "2.4.1-rc3");
+    return telemetry;
+  }
+}